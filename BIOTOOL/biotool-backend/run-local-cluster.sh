@@ -0,0 +1,35 @@
+#!/usr/bin/env bash
+# Starts a batch coordinator and several workers on this host, each with its own in-memory H2 database,
+# for trying out batch scale-out without MySQL. Ctrl-C stops them all.
+#
+# Usage: ./run-local-cluster.sh [workers]
+# The coordinator listens on $COORDINATOR_PORT (default 8080) and the workers on the following ports.
+# The "h2" profile is part of the test sources, so the instances run from the test classpath built here.
+set -euo pipefail
+cd "$(dirname "$0")"
+
+WORKERS=${1:-3}
+COORDINATOR_PORT=${COORDINATOR_PORT:-8080}
+TOKEN=${BIOTOOL_CLUSTER_TOKEN:-local-cluster-token}
+mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+APP_CLASSPATH="target/test-classes:target/classes:$(cat target/cp.txt)"
+MAIN=com.biotool.BiotoolApplication
+
+PIDS=()
+trap 'kill "${PIDS[@]}" 2>/dev/null' EXIT
+
+java -cp "$APP_CLASSPATH" "$MAIN" --spring.profiles.active=h2 --server.port="$COORDINATOR_PORT" \
+    --biotool.cluster.role=coordinator --biotool.cluster.token="$TOKEN" > target/coordinator.log 2>&1 &
+PIDS+=($!)
+echo "Coordinator on http://localhost:$COORDINATOR_PORT (log: target/coordinator.log)"
+
+for i in $(seq 1 "$WORKERS"); do
+    PORT=$((COORDINATOR_PORT + i))
+    java -cp "$APP_CLASSPATH" "$MAIN" --spring.profiles.active=h2 --server.port="$PORT" \
+        --biotool.cluster.role=worker --biotool.cluster.token="$TOKEN" \
+        --biotool.cluster.coordinator-url="http://localhost:$COORDINATOR_PORT" > "target/worker-$i.log" 2>&1 &
+    PIDS+=($!)
+    echo "Worker $i on http://localhost:$PORT (log: target/worker-$i.log)"
+done
+
+wait
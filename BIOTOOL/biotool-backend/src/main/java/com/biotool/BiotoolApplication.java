@@ -2,8 +2,10 @@ package com.biotool;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class BiotoolApplication {
     public static void main(String[] args) {
         SpringApplication.run(BiotoolApplication.class, args);
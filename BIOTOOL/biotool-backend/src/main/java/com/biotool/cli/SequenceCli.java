@@ -0,0 +1,246 @@
+package com.biotool.cli;
+
+import com.biotool.model.AnalysisResult;
+import com.biotool.model.SequenceRegion;
+import com.biotool.service.SequenceService;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A headless command-line front end for {@link SequenceService}, for batch jobs and shell pipelines.
+ *
+ * It calls the analysis engine directly and never starts Spring, so there is no web server, database
+ * connection or security setup, and it needs nothing but the application classes on the classpath.
+ * Records are read from FASTA files (optionally gzipped) or standard input, analyzed on a thread pool,
+ * and written to standard output in input order, one line per record.
+ *
+ * Usage (all options are optional):
+ * <pre>
+ *   java -jar biotool-backend-cli.jar [--format=tsv|ndjson] [--threads=N] [--sequences=true] [file ...]
+ * </pre>
+ * With no files, or with "-", the input is read from standard input. --sequences adds the transcript,
+ * protein, reverse complement and ORFs to NDJSON output.
+ */
+public class SequenceCli {
+
+    private static final String[] TSV_COLUMNS = {"id", "type", "length", "gc_content", "melting_temperature",
+            "orf_count", "count_a", "count_c", "count_g", "count_t", "count_n", "masked_bases"};
+
+    private final SequenceService sequenceService = new SequenceService();
+    private final boolean ndjson;
+    private final boolean includeSequences;
+    private final int threads;
+
+    public SequenceCli(Map<String, String> options) {
+        String format = options.getOrDefault("format", "tsv").toLowerCase(Locale.ROOT);
+        if (!format.equals("tsv") && !format.equals("ndjson")) {
+            throw new IllegalArgumentException("Unknown format: " + format + " (expected tsv or ndjson)");
+        }
+        this.ndjson = format.equals("ndjson");
+        this.includeSequences = Boolean.parseBoolean(options.getOrDefault("sequences", "false"));
+        this.threads = Integer.parseInt(options.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        List<String> files = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                int split = arg.indexOf('=');
+                options.put(arg.substring(2, split), arg.substring(split + 1));
+            } else {
+                files.add(arg);
+            }
+        }
+        if (files.isEmpty()) {
+            files.add("-");
+        }
+
+        try {
+            new SequenceCli(options).run(files);
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Analyzes every record in the given files and writes one output line per record to standard output.
+     */
+    public void run(List<String> files) throws IOException {
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 64 * 1024);
+        if (!ndjson) {
+            out.write(String.join("\t", TSV_COLUMNS));
+            out.write('\n');
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "sequence-cli");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Results are written in submission order; the window bounds how many records are held in memory.
+        Deque<Future<String>> pending = new ArrayDeque<>();
+        int window = Math.max(1, threads) * 4;
+        try {
+            for (String file : files) {
+                try (BufferedReader reader = open(file)) {
+                    String id = null;
+                    StringBuilder body = new StringBuilder();
+                    int unnamed = 0;
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (line.startsWith(">")) {
+                            if (id != null || body.length() > 0) {
+                                submit(pool, pending, id != null ? id : "record-" + (++unnamed), body.toString());
+                                drain(pending, out, window);
+                            }
+                            id = recordId(line);
+                            body.setLength(0);
+                        } else {
+                            body.append(line).append('\n');
+                        }
+                    }
+                    if (id != null || body.length() > 0) {
+                        submit(pool, pending, id != null ? id : "record-" + (++unnamed), body.toString());
+                    }
+                }
+                drain(pending, out, window);
+            }
+            drain(pending, out, 0);
+        } finally {
+            pool.shutdownNow();
+        }
+        out.flush();
+    }
+
+    private void submit(ExecutorService pool, Deque<Future<String>> pending, String id, String body) {
+        pending.add(pool.submit(() -> format(id, sequenceService.analyze(body))));
+    }
+
+    private static void drain(Deque<Future<String>> pending, Writer out, int keep) throws IOException {
+        while (pending.size() > keep) {
+            try {
+                out.write(pending.poll().get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IOException("Analysis failed: " + e.getCause(), e.getCause());
+            }
+        }
+    }
+
+    private String format(String id, AnalysisResult result) {
+        Map<Character, Integer> counts = result.getNucleotideCounts();
+        int masked = 0;
+        if (result.getMaskedRegions() != null) {
+            for (SequenceRegion region : result.getMaskedRegions()) masked += region.getEnd() - region.getStart();
+        }
+        int orfCount = result.getOpenReadingFrames() == null ? 0 : result.getOpenReadingFrames().size();
+
+        StringBuilder line = new StringBuilder(128);
+        if (!ndjson) {
+            line.append(id.replace('\t', ' ')).append('\t').append(result.getSequenceType())
+                    .append('\t').append(result.getLength())
+                    .append('\t').append(String.format(Locale.ROOT, "%.4f", result.getGcContent()))
+                    .append('\t').append(String.format(Locale.ROOT, "%.2f", result.getMeltingTemperature()))
+                    .append('\t').append(orfCount);
+            for (char base : new char[]{'A', 'C', 'G', 'T', 'N'}) {
+                line.append('\t').append(counts.getOrDefault(base, 0));
+            }
+            line.append('\t').append(masked).append('\n');
+            return line.toString();
+        }
+
+        line.append("{\"id\":");
+        appendJsonString(line, id);
+        line.append(",\"type\":");
+        appendJsonString(line, result.getSequenceType());
+        line.append(",\"length\":").append(result.getLength())
+                .append(",\"gcContent\":").append(result.getGcContent())
+                .append(",\"meltingTemperature\":").append(result.getMeltingTemperature())
+                .append(",\"orfCount\":").append(orfCount)
+                .append(",\"nucleotideCounts\":{");
+        boolean first = true;
+        for (char base : new char[]{'A', 'C', 'G', 'T', 'N'}) {
+            if (!counts.containsKey(base)) continue;
+            if (!first) line.append(',');
+            line.append('"').append(base).append("\":").append(counts.get(base));
+            first = false;
+        }
+        line.append("},\"maskedBases\":").append(masked);
+        if (includeSequences) {
+            line.append(",\"rnaTranscript\":");
+            appendJsonString(line, result.getRnaTranscript());
+            line.append(",\"proteinSequence\":");
+            appendJsonString(line, result.getProteinSequence());
+            line.append(",\"reverseComplement\":");
+            appendJsonString(line, result.getReverseComplement());
+            line.append(",\"openReadingFrames\":[");
+            for (int i = 0; i < orfCount; i++) {
+                if (i > 0) line.append(',');
+                appendJsonString(line, result.getOpenReadingFrames().get(i));
+            }
+            line.append(']');
+        }
+        line.append("}\n");
+        return line.toString();
+    }
+
+    // A minimal JSON string encoder, so the CLI does not have to load Jackson at startup.
+    private static void appendJsonString(StringBuilder out, String value) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch == '"' || ch == '\\') {
+                out.append('\\').append(ch);
+            } else if (ch < 0x20) {
+                out.append(String.format("\\u%04x", (int) ch));
+            } else {
+                out.append(ch);
+            }
+        }
+        out.append('"');
+    }
+
+    private static String recordId(String header) {
+        String trimmed = header.substring(1).trim();
+        int space = 0;
+        while (space < trimmed.length() && !Character.isWhitespace(trimmed.charAt(space))) space++;
+        return trimmed.substring(0, space);
+    }
+
+    private static BufferedReader open(String file) throws IOException {
+        InputStream in = file.equals("-") ? System.in : new FileInputStream(file);
+        if (file.endsWith(".gz")) {
+            in = new GZIPInputStream(in, 64 * 1024);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+    }
+}
@@ -0,0 +1,405 @@
+package com.biotool.config;
+
+import com.biotool.entity.SavedAnalysis;
+import com.biotool.model.AnalysisResult;
+import com.biotool.model.SequenceRegion;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes analysis results and history in a compact binary schema for machine clients that send
+ * {@code Accept: application/x-biotool-packed}. Browsers keep getting JSON, since this converter is registered
+ * after the JSON one and is only chosen when asked for explicitly. The same converter reads the schema back,
+ * so a Java client can register it with a RestTemplate to decode responses.
+ *
+ * <p>Primitives: {@code varint} is an unsigned LEB128 integer, {@code double} is 8 bytes big-endian IEEE 754,
+ * {@code string} is a varint of the UTF-8 byte length plus one, followed by the UTF-8 bytes; 0 means null.
+ *
+ * <p>A {@code seq} field starts with a tag byte: 0 = null, 1 = text (a {@code string} follows),
+ * 2 = packed DNA, 3 = packed RNA. Packed fields are a varint base count, then 2 bits per base
+ * (A/C/G/T or A/C/G/U = 0..3, first base in the high bits of the first byte), then a varint count of exceptions
+ * and, for each, a varint gap from the previous exception position and a varint character code. Exceptions carry
+ * ambiguity codes such as N; their 2-bit slot is 0.
+ *
+ * <p>An analysis result is: magic "BTA" + version byte 2, string sequenceType, varint length, double gcContent,
+ * varint number of nucleotide counts followed by (varint character, varint count) pairs, seq rnaTranscript,
+ * seq proteinSequence, seq reverseComplement, double meltingTemperature, varint ORF count followed by
+ * (varint start gap, varint length) pairs giving each ORF as a slice of the transcript, then masked regions and
+ * ambiguous regions, each as a varint count followed by (varint start gap, varint length) pairs.
+ *
+ * <p>A history list is: magic "BTH" + version byte 2, varint record count, and per record: varint id,
+ * string archiveId, string status, string createdAt (ISO-8601), string sequenceType, varint sequenceLength,
+ * double gcContent, seq originalSequence, seq rnaTranscript, seq proteinSequence.
+ *
+ * <p>Version 1 wrote null strings as length 0, so they could not be told apart from empty ones.
+ * Responses are streamed, so they carry no Content-Length.
+ */
+public class PackedFormatHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType PACKED = new MediaType("application", "x-biotool-packed");
+
+    private static final byte VERSION = 2;
+    private static final byte SEQ_NULL = 0, SEQ_TEXT = 1, SEQ_DNA = 2, SEQ_RNA = 3;
+
+    private static final char[] DNA_BASES = {'A', 'C', 'G', 'T'};
+    private static final char[] RNA_BASES = {'A', 'C', 'G', 'U'};
+    private static final byte[] CODE = new byte[128];
+    static {
+        Arrays.fill(CODE, (byte) -1);
+        CODE['A'] = 0; CODE['C'] = 1; CODE['G'] = 2; CODE['T'] = 3; CODE['U'] = 3;
+    }
+
+    public PackedFormatHttpMessageConverter() {
+        super(PACKED);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        // Only a body that is declared as packed is read; there is no guessing from an absent content type.
+        return mediaType != null && PACKED.includes(mediaType) && isAnalysisOrHistory(type, null);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return AnalysisResult.class.isAssignableFrom(clazz) || List.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (!canWrite(mediaType) || (mediaType != null && mediaType.isWildcardType())) {
+            return false; // Only served when explicitly requested, never as a fallback for */*
+        }
+        return isAnalysisOrHistory(type, clazz);
+    }
+
+    private static boolean isAnalysisOrHistory(Type type, Class<?> clazz) {
+        if (clazz != null && AnalysisResult.class.isAssignableFrom(clazz)) {
+            return true;
+        }
+        ResolvableType resolved = ResolvableType.forType(type != null ? type : clazz);
+        return AnalysisResult.class.isAssignableFrom(resolved.toClass())
+                || (List.class.isAssignableFrom(resolved.toClass())
+                    && SavedAnalysis.class.isAssignableFrom(resolved.getGeneric(0).toClass()));
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        // Written straight to the response body; the buffer only batches the many single-byte varint writes.
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputMessage.getBody(), 8192));
+        if (value instanceof AnalysisResult) {
+            writeAnalysis((AnalysisResult) value, out);
+        } else {
+            @SuppressWarnings("unchecked")
+            List<SavedAnalysis> history = (List<SavedAnalysis>) value;
+            writeHistory(history, out);
+        }
+        out.flush();
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(inputMessage.getBody(), 8192));
+        byte[] header = new byte[4];
+        in.readFully(header);
+        if (header[0] != 'B' || header[1] != 'T' || header[3] != VERSION) {
+            throw new HttpMessageNotReadableException("Not a packed analysis or history, version " + VERSION,
+                    inputMessage);
+        }
+        if (header[2] == 'A') {
+            return readAnalysis(in);
+        }
+        if (header[2] == 'H') {
+            return readHistory(in);
+        }
+        throw new HttpMessageNotReadableException("Unknown packed record type", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+
+    private static void writeAnalysis(AnalysisResult result, DataOutputStream out) throws IOException {
+        out.write(new byte[]{'B', 'T', 'A', VERSION});
+        writeString(result.getSequenceType(), out);
+        writeVarint(result.getLength(), out);
+        out.writeDouble(result.getGcContent());
+
+        Map<Character, Integer> counts = result.getNucleotideCounts();
+        writeVarint(counts == null ? 0 : counts.size(), out);
+        if (counts != null) {
+            for (Map.Entry<Character, Integer> entry : counts.entrySet()) {
+                writeVarint(entry.getKey(), out);
+                writeVarint(entry.getValue(), out);
+            }
+        }
+
+        String transcript = result.getRnaTranscript();
+        writeSequence(transcript, out);
+        writeSequence(result.getProteinSequence(), out);
+        writeSequence(result.getReverseComplement(), out);
+        out.writeDouble(result.getMeltingTemperature());
+
+        // ORFs are listed in start order and are slices of the sequence, so each is sent as a start gap and a length
+        // into the transcript rather than as text. indexOf from just past the previous start finds the same slice.
+        List<String> orfs = result.getOpenReadingFrames();
+        writeVarint(orfs == null ? 0 : orfs.size(), out);
+        if (orfs != null && !orfs.isEmpty()) {
+            String dna = transcript.replace('U', 'T');
+            int previous = 0;
+            int from = 0;
+            for (String orf : orfs) {
+                int start = dna.indexOf(orf, from);
+                writeVarint(start - previous, out);
+                writeVarint(orf.length(), out);
+                previous = start;
+                from = start + 1;
+            }
+        }
+
+        writeRegions(result.getMaskedRegions(), out);
+        writeRegions(result.getAmbiguousRegions(), out);
+    }
+
+    private static void writeHistory(List<SavedAnalysis> history, DataOutputStream out) throws IOException {
+        out.write(new byte[]{'B', 'T', 'H', VERSION});
+        writeVarint(history.size(), out);
+        for (SavedAnalysis analysis : history) {
+            writeVarint(analysis.getId() == null ? 0 : analysis.getId(), out);
+            writeString(analysis.getArchiveId(), out);
+            writeString(analysis.getStatus(), out);
+            writeString(analysis.getCreatedAt() == null ? null : analysis.getCreatedAt().toString(), out);
+            writeString(analysis.getSequenceType(), out);
+            writeVarint(analysis.getSequenceLength(), out);
+            out.writeDouble(analysis.getGcContent());
+            writeSequence(analysis.getOriginalSequence(), out);
+            writeSequence(analysis.getRnaTranscript(), out);
+            writeSequence(analysis.getProteinSequence(), out);
+        }
+    }
+
+    private static void writeRegions(List<SequenceRegion> regions, DataOutputStream out) throws IOException {
+        writeVarint(regions == null ? 0 : regions.size(), out);
+        if (regions == null) return;
+        int previous = 0;
+        for (SequenceRegion region : regions) {
+            writeVarint(region.getStart() - previous, out);
+            writeVarint(region.getEnd() - region.getStart(), out);
+            previous = region.getStart();
+        }
+    }
+
+    // Packs nucleotide text at 2 bits per base when that pays off; anything else (protein, messages) goes as text.
+    private static void writeSequence(String value, DataOutputStream out) throws IOException {
+        if (value == null) {
+            out.writeByte(SEQ_NULL);
+            return;
+        }
+        int length = value.length();
+        int exceptions = 0;
+        boolean hasT = false;
+        boolean hasU = false;
+        for (int i = 0; i < length; i++) {
+            char ch = value.charAt(i);
+            if (ch >= 128 || CODE[ch] < 0) {
+                exceptions++;
+            } else if (ch == 'T') {
+                hasT = true;
+            } else if (ch == 'U') {
+                hasU = true;
+            }
+        }
+        // Text is the better choice for short values, mixed T/U, or when exceptions would dominate.
+        if (length < 16 || (hasT && hasU) || exceptions * 8 > length) {
+            out.writeByte(SEQ_TEXT);
+            writeString(value, out);
+            return;
+        }
+
+        out.writeByte(hasU ? SEQ_RNA : SEQ_DNA);
+        writeVarint(length, out);
+        byte[] packed = new byte[(length + 3) / 4];
+        for (int i = 0; i < length; i++) {
+            char ch = value.charAt(i);
+            int code = ch < 128 && CODE[ch] >= 0 ? CODE[ch] : 0;
+            packed[i >> 2] |= code << (6 - 2 * (i & 3));
+        }
+        out.write(packed);
+
+        writeVarint(exceptions, out);
+        int previous = 0;
+        for (int i = 0; i < length && exceptions > 0; i++) {
+            char ch = value.charAt(i);
+            if (ch >= 128 || CODE[ch] < 0) {
+                writeVarint(i - previous, out);
+                writeVarint(ch, out);
+                previous = i;
+            }
+        }
+    }
+
+    private static void writeString(String value, DataOutputStream out) throws IOException {
+        if (value == null) {
+            writeVarint(0, out);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length + 1L, out);
+        out.write(bytes);
+    }
+
+    private static void writeVarint(long value, OutputStream out) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static AnalysisResult readAnalysis(DataInputStream in) throws IOException {
+        AnalysisResult result = new AnalysisResult();
+        result.setSequenceType(readString(in));
+        result.setLength(readInt(in));
+        result.setGcContent(in.readDouble());
+
+        int countEntries = readInt(in);
+        Map<Character, Integer> counts = new HashMap<>();
+        for (int i = 0; i < countEntries; i++) {
+            counts.put((char) readInt(in), readInt(in));
+        }
+        result.setNucleotideCounts(counts);
+
+        String transcript = readSequence(in);
+        result.setRnaTranscript(transcript);
+        result.setProteinSequence(readSequence(in));
+        result.setReverseComplement(readSequence(in));
+        result.setMeltingTemperature(in.readDouble());
+
+        int orfCount = readInt(in);
+        List<String> orfs = new ArrayList<>(orfCount);
+        int start = 0;
+        for (int i = 0; i < orfCount; i++) {
+            start += readInt(in);
+            orfs.add(transcript.substring(start, start + readInt(in)).replace('U', 'T'));
+        }
+        result.setOpenReadingFrames(orfs);
+
+        result.setMaskedRegions(readRegions(in));
+        result.setAmbiguousRegions(readRegions(in));
+        return result;
+    }
+
+    private static List<SavedAnalysis> readHistory(DataInputStream in) throws IOException {
+        int size = readInt(in);
+        List<SavedAnalysis> history = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            SavedAnalysis analysis = new SavedAnalysis();
+            long id = readVarint(in);
+            analysis.setId(id == 0 ? null : id);
+            analysis.setArchiveId(readString(in));
+            analysis.setStatus(readString(in));
+            String createdAt = readString(in);
+            analysis.setCreatedAt(createdAt == null ? null : LocalDateTime.parse(createdAt));
+            analysis.setSequenceType(readString(in));
+            analysis.setSequenceLength(readInt(in));
+            analysis.setGcContent(in.readDouble());
+            analysis.setOriginalSequence(readSequence(in));
+            analysis.setRnaTranscript(readSequence(in));
+            analysis.setProteinSequence(readSequence(in));
+            history.add(analysis);
+        }
+        return history;
+    }
+
+    private static List<SequenceRegion> readRegions(DataInputStream in) throws IOException {
+        int count = readInt(in);
+        List<SequenceRegion> regions = new ArrayList<>(count);
+        int start = 0;
+        for (int i = 0; i < count; i++) {
+            start += readInt(in);
+            regions.add(new SequenceRegion(start, start + readInt(in)));
+        }
+        return regions;
+    }
+
+    private static String readSequence(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case SEQ_NULL:
+                return null;
+            case SEQ_TEXT:
+                return readString(in);
+            case SEQ_DNA:
+            case SEQ_RNA:
+                break;
+            default:
+                throw new IOException("Unknown sequence tag " + tag);
+        }
+        char[] bases = tag == SEQ_RNA ? RNA_BASES : DNA_BASES;
+        int length = readInt(in);
+        byte[] packed = new byte[(length + 3) / 4];
+        in.readFully(packed);
+        char[] value = new char[length];
+        for (int i = 0; i < length; i++) {
+            value[i] = bases[(packed[i >> 2] >> (6 - 2 * (i & 3))) & 3];
+        }
+
+        int exceptions = readInt(in);
+        int position = 0;
+        for (int i = 0; i < exceptions; i++) {
+            position += readInt(in);
+            value[position] = (char) readInt(in);
+        }
+        return new String(value);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = readInt(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int readInt(InputStream in) throws IOException {
+        return Math.toIntExact(readVarint(in));
+    }
+
+    private static long readVarint(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated varint");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Varint is too long");
+    }
+}
@@ -57,6 +57,8 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
             .antMatchers("/", "/index.html", "/images/**").permitAll() 
             .antMatchers("/api/auth/**").permitAll()
             .antMatchers("/h2-console/**").permitAll()
+            // Instance-to-instance and operator calls; ClusterController checks the shared cluster token instead
+            .antMatchers("/api/cluster/**").permitAll()
             .anyRequest().authenticated();
 
         http.headers().frameOptions().sameOrigin();
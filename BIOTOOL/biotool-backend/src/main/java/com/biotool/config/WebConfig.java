@@ -0,0 +1,21 @@
+package com.biotool.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Response encodings beyond JSON. CBOR ({@code application/cbor}) and Smile ({@code application/x-jackson-smile})
+ * are registered by Spring Boot from the Jackson data format modules; the packed schema is added here.
+ * All of them sit after the JSON converter, so clients that do not ask for a binary type still get JSON.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new PackedFormatHttpMessageConverter());
+    }
+}
@@ -1,20 +1,32 @@
 package com.biotool.controller;
 
+import com.biotool.entity.ArchiveStats;
 import com.biotool.entity.SavedAnalysis;
 import com.biotool.entity.User;
 import com.biotool.model.AnalysisRequest;
-import com.biotool.model.AnalysisResult;
+import com.biotool.model.BulkDeleteRequest;
+import com.biotool.model.RetentionRequest;
 import com.biotool.repository.SavedAnalysisRepository;
 import com.biotool.repository.UserRepository;
+import com.biotool.security.services.UserDetailsImpl;
+import com.biotool.service.AnalysisCleanupService;
+import com.biotool.service.AnalysisExportService;
+import com.biotool.service.AnalysisExportService.ExportFormat;
+import com.biotool.service.ArchiveStatsService;
+import com.biotool.service.SequenceNormalizer.NormalizedSequence;
 import com.biotool.service.SequenceService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Handles API requests related to saving and retrieving analysis results.
@@ -34,6 +46,15 @@ public class AnalysisController {
     @Autowired
     private SequenceService sequenceService;
 
+    @Autowired
+    private AnalysisExportService analysisExportService;
+
+    @Autowired
+    private AnalysisCleanupService analysisCleanupService;
+
+    @Autowired
+    private ArchiveStatsService archiveStatsService;
+
     /**
      * Analyzes a sequence and saves the result to the authenticated user's account.
      * @param request The request containing the sequence to analyze and save.
@@ -47,21 +68,15 @@ public class AnalysisController {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
-        // Perform the analysis using the existing service
-        AnalysisResult analysisResult = sequenceService.analyze(request.getSequence());
+        // Normalize the input once (FASTA headers, whitespace, case); a sequence stored before is not analyzed again
+        NormalizedSequence normalized = sequenceService.normalize(request.getSequence());
 
         // Create a new entity to save to the database
         SavedAnalysis savedAnalysis = new SavedAnalysis();
-        savedAnalysis.setOriginalSequence(request.getSequence().toUpperCase());
-        savedAnalysis.setSequenceType(analysisResult.getSequenceType());
-        savedAnalysis.setSequenceLength(analysisResult.getLength());
-        savedAnalysis.setGcContent(analysisResult.getGcContent());
-        savedAnalysis.setRnaTranscript(analysisResult.getRnaTranscript());
-        savedAnalysis.setProteinSequence(analysisResult.getProteinSequence());
         savedAnalysis.setUser(user); // Link the result to the current user
 
-        // Save the entity to the database using its repository
-        savedAnalysisRepository.save(savedAnalysis);
+        // Save the entity, sharing its sequence, and update the user's archive statistics in one transaction
+        archiveStatsService.save(savedAnalysis, normalized);
 
         return ResponseEntity.ok("Analysis saved successfully!");
     }
@@ -83,6 +98,61 @@ public class AnalysisController {
         return ResponseEntity.ok(history);
     }
 
+    /**
+     * Retrieves the dashboard summary of the authenticated user's archive: totals, GC histogram and type breakdown.
+     * This is a single primary-key read, however large the archive is.
+     * @return The user's archive statistics.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<ArchiveStats> getArchiveStats() {
+        // The user ID is already on the authenticated principal, so no user lookup is needed
+        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return ResponseEntity.ok(archiveStatsService.getStats(userDetails.getId()));
+    }
+
+    /**
+     * Exports the authenticated user's full analysis archive as a file download.
+     * The response is streamed straight from a database cursor, so the archive is never held in memory.
+     * @param format One of fasta, csv, tsv or ndjson.
+     * @param gzip Whether to gzip-compress the download.
+     * @return The streamed export, 'No Content' if there is nothing to export, or a 'Bad Request' error for an
+     *         unknown format.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAnalyses(@RequestParam(defaultValue = "csv") String format,
+                                            @RequestParam(defaultValue = "false") boolean gzip) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+
+        if (!savedAnalysisRepository.existsByUser(user)) {
+            return ResponseEntity.noContent().build();
+        }
+
+        String filename = "biotool_history." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, 64 * 1024);
+                analysisExportService.export(user, exportFormat, gzipOut);
+                gzipOut.finish();
+            } else {
+                analysisExportService.export(user, exportFormat, out);
+            }
+        };
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.getContentType()))
+                .body(body);
+    }
+
     /**
      * Deletes a specific saved analysis by its ID.
      * Ensures that a user can only delete their own analysis results for security.
@@ -96,17 +166,58 @@ public class AnalysisController {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
-        // Find the analysis by its ID and ensure it belongs to the current user
-        return savedAnalysisRepository.findById(id)
-                .map(analysis -> {
-                    if (analysis.getUser().getId().equals(user.getId())) {
-                        savedAnalysisRepository.delete(analysis);
-                        return ResponseEntity.ok("Analysis deleted successfully.");
-                    } else {
-                        // If the analysis does not belong to the user, return a 'Forbidden' error
-                        return ResponseEntity.status(403).body("Error: You do not have permission to delete this analysis.");
-                    }
-                }).orElse(ResponseEntity.notFound().build()); // If no analysis with that ID is found
+        // Delete the analysis only if it belongs to the current user, without loading it first
+        if (analysisCleanupService.deleteByIds(user, List.of(id)) > 0) {
+            return ResponseEntity.ok("Analysis deleted successfully.");
+        }
+        if (savedAnalysisRepository.existsById(id)) {
+            // If the analysis does not belong to the user, return a 'Forbidden' error
+            return ResponseEntity.status(403).body("Error: You do not have permission to delete this analysis.");
+        }
+        return ResponseEntity.notFound().build(); // If no analysis with that ID is found
     }
-}
 
+    /**
+     * Deletes many of the authenticated user's analyses in one call, either by ID or by date range and status.
+     * Analyses belonging to other users are never touched.
+     * @param request The IDs, or the filters, selecting what to delete.
+     * @return A message with the number of analyses deleted.
+     */
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<?> bulkDeleteAnalyses(@RequestBody BulkDeleteRequest request) {
+        boolean hasIds = request.getIds() != null && !request.getIds().isEmpty();
+        boolean hasFilter = request.getFrom() != null || request.getTo() != null || request.getStatus() != null;
+        if (hasIds == hasFilter) {
+            return ResponseEntity.badRequest().body("Error: Provide either a list of IDs or a date range/status filter.");
+        }
+
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+
+        int deleted = hasIds
+                ? analysisCleanupService.deleteByIds(user, request.getIds())
+                : analysisCleanupService.deleteByFilter(user, request.getFrom(), request.getTo(), request.getStatus());
+        return ResponseEntity.ok(deleted + " analyses deleted successfully.");
+    }
+
+    /**
+     * Sets how many days the authenticated user's saved analyses are kept before the purge job removes them.
+     * @param request The retention period in days, or null to fall back to the server default.
+     * @return A success message.
+     */
+    @PutMapping("/retention")
+    public ResponseEntity<?> setRetention(@RequestBody RetentionRequest request) {
+        if (request.getDays() != null && request.getDays() < 0) {
+            return ResponseEntity.badRequest().body("Error: Retention must be zero or more days.");
+        }
+
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+
+        user.setRetentionDays(request.getDays());
+        userRepository.save(user);
+        return ResponseEntity.ok("Retention updated successfully.");
+    }
+}
@@ -7,6 +7,7 @@ import com.biotool.model.RegisterRequest;
 import com.biotool.repository.UserRepository;
 import com.biotool.security.jwt.JwtUtils;
 import com.biotool.security.services.UserDetailsImpl;
+import com.biotool.service.ArchiveStatsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -27,6 +28,9 @@ public class AuthController {
     @Autowired
     UserRepository userRepository;
 
+    @Autowired
+    ArchiveStatsService archiveStatsService;
+
     @Autowired
     PasswordEncoder encoder;
 
@@ -52,7 +56,8 @@ public class AuthController {
         }
         User user = new User(registerRequest.getUsername(),
                              encoder.encode(registerRequest.getPassword()));
-        userRepository.save(user);
+        // The user and their statistics row are created in one transaction
+        archiveStatsService.createUser(user);
         return ResponseEntity.ok("User registered successfully!");
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
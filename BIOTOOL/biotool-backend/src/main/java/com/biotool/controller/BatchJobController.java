@@ -0,0 +1,101 @@
+package com.biotool.controller;
+
+import com.biotool.entity.BatchJob;
+import com.biotool.model.AnalysisRequest;
+import com.biotool.security.services.UserDetailsImpl;
+import com.biotool.service.BatchJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Handles API requests for batch jobs: large multi-record submissions that are split into shards
+ * and analyzed across the worker instances. Jobs belong to the authenticated user who submitted them.
+ */
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/jobs")
+public class BatchJobController {
+
+    @Autowired
+    private BatchJobService batchJobService;
+
+    /**
+     * Submits a multi-record FASTA file as a batch job.
+     * @param request The request whose sequence holds the FASTA records.
+     * @return The queued job, whose progress can then be polled.
+     */
+    @PostMapping
+    public ResponseEntity<?> submitJob(@RequestBody AnalysisRequest request) {
+        if (request.getSequence() == null || request.getSequence().trim().isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(batchJobService.submit(currentUserId(), request.getSequence()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lists the authenticated user's batch jobs, newest first.
+     */
+    @GetMapping
+    public ResponseEntity<List<BatchJob>> listJobs() {
+        return ResponseEntity.ok(batchJobService.listJobs(currentUserId()));
+    }
+
+    /**
+     * Retrieves the progress of a batch job.
+     * @param id The ID of the job.
+     * @return The job, or 'Not Found' if the user has no such job.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<BatchJob> getJob(@PathVariable Long id) {
+        return batchJobService.getJob(currentUserId(), id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Streams the merged results of a completed batch job as NDJSON, one line per record in submission order.
+     * @param id The ID of the job.
+     * @return The results; 'Not Found' if the user has no such job, 'Conflict' if it has not completed,
+     * 'Gone' if its results have expired, or 'Internal Server Error' if some of its stored results are missing.
+     */
+    @GetMapping("/{id}/results")
+    public ResponseEntity<?> getJobResults(@PathVariable Long id) {
+        Optional<BatchJob> job = batchJobService.getJob(currentUserId(), id);
+        if (job.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!BatchJob.COMPLETED.equals(job.get().getStatus())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        LocalDateTime expiresAt = job.get().getResultsExpireAt();
+        if (expiresAt == null || expiresAt.isBefore(LocalDateTime.now())) {
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        }
+        BatchJob completed = job.get();
+        if (!batchJobService.hasAllResults(completed)) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error: Some of the results of this job are missing.");
+        }
+        StreamingResponseBody body = out -> batchJobService.writeResults(completed, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    private Long currentUserId() {
+        return ((UserDetailsImpl) SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getId();
+    }
+}
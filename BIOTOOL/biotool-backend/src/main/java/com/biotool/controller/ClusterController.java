@@ -0,0 +1,81 @@
+package com.biotool.controller;
+
+import com.biotool.model.ShardRequest;
+import com.biotool.model.WorkerHeartbeat;
+import com.biotool.service.ClusterWorkerService;
+import com.biotool.service.WorkerRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Handles the traffic between the coordinator and its workers. These endpoints are for the instances and their
+ * operators rather than for users, so instead of a user login they require the cluster's shared token
+ * (biotool.cluster.token) in the X-Cluster-Token header, and they are refused when no token is configured.
+ */
+@RestController
+@RequestMapping("/api/cluster")
+public class ClusterController {
+
+    @Autowired
+    private WorkerRegistry workerRegistry;
+
+    @Autowired
+    private ClusterWorkerService clusterWorkerService;
+
+    @Value("${biotool.cluster.token:}")
+    private String token;
+
+    /**
+     * Registers a worker with this coordinator or refreshes its registration.
+     */
+    @PostMapping("/heartbeat")
+    public ResponseEntity<?> heartbeat(@RequestHeader(value = ClusterWorkerService.TOKEN_HEADER, required = false) String clusterToken,
+                                       @RequestBody WorkerHeartbeat heartbeat) {
+        if (!authorized(clusterToken)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Error: Invalid cluster token.");
+        }
+        if (heartbeat.getWorkerId() == null || heartbeat.getWorkerId().equals(WorkerRegistry.LOCAL_WORKER)
+                || heartbeat.getUrl() == null || heartbeat.getUrl().isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        workerRegistry.heartbeat(heartbeat);
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * Runs one shard of a batch job on this instance and returns its results.
+     */
+    @PostMapping("/shards")
+    public ResponseEntity<?> runShard(@RequestHeader(value = ClusterWorkerService.TOKEN_HEADER, required = false) String clusterToken,
+                                      @RequestBody ShardRequest request) {
+        if (!authorized(clusterToken)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Error: Invalid cluster token.");
+        }
+        if (request.getRecords() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(clusterWorkerService.runShard(request));
+    }
+
+    /**
+     * Lists the workers registered with this coordinator, including their internal URLs, for operators.
+     */
+    @GetMapping("/workers")
+    public ResponseEntity<?> listWorkers(@RequestHeader(value = ClusterWorkerService.TOKEN_HEADER, required = false) String clusterToken) {
+        if (!authorized(clusterToken)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Error: Invalid cluster token.");
+        }
+        return ResponseEntity.ok(workerRegistry.list());
+    }
+
+    private boolean authorized(String clusterToken) {
+        return !token.isEmpty() && clusterToken != null
+                && MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), clusterToken.getBytes(StandardCharsets.UTF_8));
+    }
+}
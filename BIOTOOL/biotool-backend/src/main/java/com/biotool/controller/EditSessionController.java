@@ -0,0 +1,101 @@
+package com.biotool.controller;
+
+import com.biotool.model.AnalysisRequest;
+import com.biotool.model.EditRequest;
+import com.biotool.model.EditSessionResult;
+import com.biotool.service.EditSessionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Handles API requests for edit sessions, where a sequence is loaded once and then edited in place.
+ * Sessions belong to the authenticated user who opened them.
+ */
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/edit-sessions")
+public class EditSessionController {
+
+    @Autowired
+    private EditSessionService editSessionService;
+
+    /**
+     * Opens an edit session for a sequence.
+     * @param request The request containing the sequence to load.
+     * @return The session ID and the statistics of the loaded sequence.
+     */
+    @PostMapping
+    public ResponseEntity<?> openSession(@RequestBody AnalysisRequest request) {
+        try {
+            return ResponseEntity.ok(editSessionService.open(currentUsername(), request.getSequence()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Retrieves the current statistics of an edit session.
+     * @param id The ID of the session.
+     * @return The session statistics, or 'Not Found' if the session does not exist or has expired.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<EditSessionResult> getSession(@PathVariable String id) {
+        return editSessionService.get(currentUsername(), id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Reads part of an edit session's current sequence, such as the bases of an ORF an edit reported.
+     * @param id The ID of the session.
+     * @param from The start of the range, 0-based.
+     * @param to The end of the range, exclusive.
+     * @return The bases, or 'Not Found' if the session does not exist or has expired.
+     */
+    @GetMapping("/{id}/bases")
+    public ResponseEntity<?> getBases(@PathVariable String id, @RequestParam int from, @RequestParam int to) {
+        try {
+            return editSessionService.getBases(currentUsername(), id, from, to)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Applies an edit (substitution, insertion or deletion) to an edit session.
+     * @param id The ID of the session.
+     * @param request The edit to apply.
+     * @return The updated statistics and the ORFs the edit removed and added.
+     */
+    @PostMapping("/{id}/edits")
+    public ResponseEntity<?> editSession(@PathVariable String id, @RequestBody EditRequest request) {
+        try {
+            return editSessionService.edit(currentUsername(), id, request)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Closes an edit session and frees its memory.
+     * @param id The ID of the session.
+     * @return A success message.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> closeSession(@PathVariable String id) {
+        if (editSessionService.close(currentUsername(), id)) {
+            return ResponseEntity.ok("Edit session closed successfully.");
+        }
+        return ResponseEntity.notFound().build();
+    }
+
+    private String currentUsername() {
+        return SecurityContextHolder.getContext().getAuthentication().getName();
+    }
+}
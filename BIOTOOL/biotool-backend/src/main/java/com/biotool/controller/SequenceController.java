@@ -2,21 +2,34 @@ package com.biotool.controller;
 
 import com.biotool.model.AnalysisRequest;
 import com.biotool.model.AnalysisResult;
+import com.biotool.model.ProteinProperties;
+import com.biotool.model.RestrictionDigest;
+import com.biotool.model.RestrictionEnzyme;
+import com.biotool.model.RestrictionRequest;
+import com.biotool.service.ProteinAnalysisService;
+import com.biotool.service.RestrictionAnalysisService;
 import com.biotool.service.SequenceService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/sequence")
 @CrossOrigin(origins = "*")
 public class SequenceController {
 
     private final SequenceService sequenceService;
+    private final ProteinAnalysisService proteinAnalysisService;
+    private final RestrictionAnalysisService restrictionAnalysisService;
 
     @Autowired
-    public SequenceController(SequenceService sequenceService) {
+    public SequenceController(SequenceService sequenceService, ProteinAnalysisService proteinAnalysisService,
+                              RestrictionAnalysisService restrictionAnalysisService) {
         this.sequenceService = sequenceService;
+        this.proteinAnalysisService = proteinAnalysisService;
+        this.restrictionAnalysisService = restrictionAnalysisService;
     }
 
     @PostMapping("/analyze")
@@ -27,4 +40,50 @@ public class SequenceController {
         AnalysisResult result = sequenceService.analyze(request.getSequence());
         return ResponseEntity.ok(result);
     }
-}
\ No newline at end of file
+
+    /**
+     * Computes protein properties for a translated protein sequence or a protein FASTA file.
+     * @param request The request whose sequence holds one protein chain or any number of FASTA records.
+     * @return The properties of each record, in input order.
+     */
+    @PostMapping("/protein")
+    public ResponseEntity<?> analyzeProtein(@RequestBody AnalysisRequest request) {
+        if (request.getSequence() == null || request.getSequence().trim().isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            List<ProteinProperties> results = proteinAnalysisService.analyzeAll(request.getSequence());
+            return ResponseEntity.ok(results);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lists the built-in restriction enzyme catalog.
+     * @return Every enzyme with its recognition site and cut positions.
+     */
+    @GetMapping("/enzymes")
+    public ResponseEntity<List<RestrictionEnzyme>> listEnzymes() {
+        return ResponseEntity.ok(restrictionAnalysisService.getEnzymes());
+    }
+
+    /**
+     * Finds where restriction enzymes cut a DNA sequence, on both strands, and digests it with them.
+     * @param request The sequence, the enzymes to use (all of the catalog if none are given) and its topology.
+     * @return The cut sites, cut counts per enzyme and fragments of the digest.
+     */
+    @PostMapping("/restriction")
+    public ResponseEntity<?> analyzeRestriction(@RequestBody RestrictionRequest request) {
+        if (request.getSequence() == null || request.getSequence().trim().isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            RestrictionDigest digest = restrictionAnalysisService.digest(
+                    request.getSequence(), request.getEnzymes(), request.isCircular());
+            return ResponseEntity.ok(digest);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,88 @@
+package com.biotool.entity;
+
+import com.biotool.entity.converter.CountMapConverter;
+import com.biotool.entity.converter.LongArrayConverter;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Running totals over everything a user has saved, kept in a single row per user.
+ * It is updated in the same transaction as every save and delete, so the dashboard never has to scan the archive.
+ */
+@Entity
+@Table(name = "archive_stats")
+public class ArchiveStats {
+
+    // GC content is bucketed into ten 10%-wide bins; 100% falls into the last one.
+    public static final int GC_BUCKETS = 10;
+
+    @Id
+    private Long userId;
+
+    private long totalAnalyses;
+    private long totalBasePairs;
+
+    @Convert(converter = LongArrayConverter.class)
+    private long[] gcHistogram = new long[GC_BUCKETS];
+
+    @Convert(converter = CountMapConverter.class)
+    private Map<String, Long> sequenceTypeCounts = new TreeMap<>();
+
+    private LocalDateTime updatedAt;
+
+    public ArchiveStats() {}
+
+    public ArchiveStats(Long userId) {
+        this.userId = userId;
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Adds (sign = 1) or removes (sign = -1) one analysis' contribution to the totals.
+     */
+    public void apply(String sequenceType, int sequenceLength, double gcContent, int sign) {
+        totalAnalyses += sign;
+        totalBasePairs += (long) sign * sequenceLength;
+        gcHistogram[gcBucket(gcContent)] += sign;
+        String type = sequenceType != null ? sequenceType : "Unknown";
+        long typeCount = sequenceTypeCounts.getOrDefault(type, 0L) + sign;
+        if (typeCount > 0) {
+            sequenceTypeCounts.put(type, typeCount);
+        } else {
+            sequenceTypeCounts.remove(type);
+        }
+    }
+
+    public void reset() {
+        totalAnalyses = 0;
+        totalBasePairs = 0;
+        gcHistogram = new long[GC_BUCKETS];
+        sequenceTypeCounts = new TreeMap<>();
+    }
+
+    public static int gcBucket(double gcContent) {
+        int bucket = (int) Math.floor(gcContent / (100.0 / GC_BUCKETS));
+        return Math.max(0, Math.min(bucket, GC_BUCKETS - 1));
+    }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public long getTotalAnalyses() { return totalAnalyses; }
+    public void setTotalAnalyses(long totalAnalyses) { this.totalAnalyses = totalAnalyses; }
+    public long getTotalBasePairs() { return totalBasePairs; }
+    public void setTotalBasePairs(long totalBasePairs) { this.totalBasePairs = totalBasePairs; }
+    public long[] getGcHistogram() { return gcHistogram; }
+    public void setGcHistogram(long[] gcHistogram) { this.gcHistogram = gcHistogram; }
+    public Map<String, Long> getSequenceTypeCounts() { return sequenceTypeCounts; }
+    public void setSequenceTypeCounts(Map<String, Long> sequenceTypeCounts) { this.sequenceTypeCounts = sequenceTypeCounts; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,84 @@
+package com.biotool.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Records the progress of a batch analysis job, which the coordinator splits into shards and runs on the workers.
+ * The row is updated as each shard completes, so progress survives even after the results themselves expire.
+ * The results of a completed job are stored in {@link BatchJobResult} rows until resultsExpireAt.
+ */
+@Entity
+@Table(name = "batch_jobs", indexes = {
+        @Index(name = "idx_batch_jobs_user_created", columnList = "userId, createdAt")
+})
+public class BatchJob {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    private String status;
+
+    private int totalRecords;
+    private int completedRecords;
+    private int totalShards;
+    private int completedShards;
+
+    // Shard attempts that failed and were sent again, to the same or another worker
+    private int retriedShards;
+
+    private String errorMessage;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+
+    // Renewed by the instance running the job; a job whose lease runs out is failed as interrupted
+    @JsonIgnore
+    private LocalDateTime heartbeatAt;
+
+    // When the stored results of a completed job are deleted; null for jobs that did not complete
+    private LocalDateTime resultsExpireAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public int getTotalRecords() { return totalRecords; }
+    public void setTotalRecords(int totalRecords) { this.totalRecords = totalRecords; }
+    public int getCompletedRecords() { return completedRecords; }
+    public void setCompletedRecords(int completedRecords) { this.completedRecords = completedRecords; }
+    public int getTotalShards() { return totalShards; }
+    public void setTotalShards(int totalShards) { this.totalShards = totalShards; }
+    public int getCompletedShards() { return completedShards; }
+    public void setCompletedShards(int completedShards) { this.completedShards = completedShards; }
+    public int getRetriedShards() { return retriedShards; }
+    public void setRetriedShards(int retriedShards) { this.retriedShards = retriedShards; }
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+    public LocalDateTime getHeartbeatAt() { return heartbeatAt; }
+    public void setHeartbeatAt(LocalDateTime heartbeatAt) { this.heartbeatAt = heartbeatAt; }
+    public LocalDateTime getResultsExpireAt() { return resultsExpireAt; }
+    public void setResultsExpireAt(LocalDateTime resultsExpireAt) { this.resultsExpireAt = resultsExpireAt; }
+}
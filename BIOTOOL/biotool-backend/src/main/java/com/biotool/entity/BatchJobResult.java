@@ -0,0 +1,50 @@
+package com.biotool.entity;
+
+import javax.persistence.*;
+
+/**
+ * The results of one shard of a batch job, stored as soon as the shard finishes so that any instance can serve
+ * them and they survive a restart. The records are kept as gzip-compressed NDJSON, one line per record in input
+ * order, which is exactly what the download sends, so serving them needs no parsing.
+ */
+@Entity
+@Table(name = "batch_job_results", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_batch_job_results_shard", columnNames = {"jobId", "shardIndex"})
+})
+public class BatchJobResult {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long jobId;
+
+    private int shardIndex;
+    private int recordCount;
+
+    @Lob
+    @Column(nullable = false)
+    private byte[] records;
+
+    public BatchJobResult() {
+    }
+
+    public BatchJobResult(Long jobId, int shardIndex, int recordCount, byte[] records) {
+        this.jobId = jobId;
+        this.shardIndex = shardIndex;
+        this.recordCount = recordCount;
+        this.records = records;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getJobId() { return jobId; }
+    public void setJobId(Long jobId) { this.jobId = jobId; }
+    public int getShardIndex() { return shardIndex; }
+    public void setShardIndex(int shardIndex) { this.shardIndex = shardIndex; }
+    public int getRecordCount() { return recordCount; }
+    public void setRecordCount(int recordCount) { this.recordCount = recordCount; }
+    public byte[] getRecords() { return records; }
+    public void setRecords(byte[] records) { this.records = records; }
+}
@@ -1,5 +1,7 @@
 package com.biotool.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import javax.persistence.*;
 import java.time.LocalDateTime;
 import java.util.UUID; // Import for generating unique IDs
@@ -7,9 +9,14 @@ import java.util.UUID; // Import for generating unique IDs
 /**
  * Represents a saved analysis result in the database.
  * Each instance of this class will be a row in the 'saved_analyses' table.
+ * The sequence itself and its transcript and protein live in a shared {@link SequenceBlob}; the type, length and
+ * GC content are copied onto the row because statistics and filters read them without touching the sequence.
  */
 @Entity
-@Table(name = "saved_analyses")
+@Table(name = "saved_analyses", indexes = {
+        // Supports ownership-scoped range scans for bulk deletion and retention purges
+        @Index(name = "idx_saved_analyses_user_created", columnList = "user_id, createdAt")
+})
 public class SavedAnalysis {
 
     @Id
@@ -22,6 +29,7 @@ public class SavedAnalysis {
     // NEW: The status of the analysis
     private String status;
 
+    // Legacy copy of the sequence, only set on rows saved before sequences were shared and not yet migrated
     @Lob
     private String originalSequence;
 
@@ -37,6 +45,11 @@ public class SavedAnalysis {
 
     private LocalDateTime createdAt;
 
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "sequence_hash")
+    private SequenceBlob sequenceBlob;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -62,7 +75,7 @@ public class SavedAnalysis {
     public void setArchiveId(String archiveId) { this.archiveId = archiveId; }
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
-    public String getOriginalSequence() { return originalSequence; }
+    public String getOriginalSequence() { return sequenceBlob != null ? sequenceBlob.getSequence() : originalSequence; }
     public void setOriginalSequence(String originalSequence) { this.originalSequence = originalSequence; }
     public String getSequenceType() { return sequenceType; }
     public void setSequenceType(String sequenceType) { this.sequenceType = sequenceType; }
@@ -70,12 +83,14 @@ public class SavedAnalysis {
     public void setSequenceLength(int sequenceLength) { this.sequenceLength = sequenceLength; }
     public double getGcContent() { return gcContent; }
     public void setGcContent(double gcContent) { this.gcContent = gcContent; }
-    public String getRnaTranscript() { return rnaTranscript; }
+    public String getRnaTranscript() { return sequenceBlob != null ? sequenceBlob.getRnaTranscript() : rnaTranscript; }
     public void setRnaTranscript(String rnaTranscript) { this.rnaTranscript = rnaTranscript; }
-    public String getProteinSequence() { return proteinSequence; }
+    public String getProteinSequence() { return sequenceBlob != null ? sequenceBlob.getProteinSequence() : proteinSequence; }
     public void setProteinSequence(String proteinSequence) { this.proteinSequence = proteinSequence; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public SequenceBlob getSequenceBlob() { return sequenceBlob; }
+    public void setSequenceBlob(SequenceBlob sequenceBlob) { this.sequenceBlob = sequenceBlob; }
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
 }
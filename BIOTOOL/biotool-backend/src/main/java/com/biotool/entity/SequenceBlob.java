@@ -0,0 +1,62 @@
+package com.biotool.entity;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A normalized sequence stored once, however many saved analyses refer to it, keyed by the SHA-256 of its text.
+ * The analysis results that depend only on the sequence are stored alongside it, so saving a sequence that is
+ * already known needs neither a new copy nor a new analysis. The reference count is the number of saved
+ * analyses pointing here; the row is removed when the last of them is deleted. The stored results carry the
+ * analysis version they were computed with, and results from an older version are recomputed on the next save.
+ */
+@Entity
+@Table(name = "sequence_blobs")
+public class SequenceBlob {
+
+    // Lower-case hex SHA-256 of the normalized sequence
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Lob
+    private String sequence;
+
+    private String sequenceType;
+    private int sequenceLength;
+    private double gcContent;
+
+    @Lob
+    private String rnaTranscript;
+
+    @Lob
+    private String proteinSequence;
+
+    private long refCount;
+
+    // SequenceService.ANALYSIS_VERSION when the results were computed; 0 for results carried over from before
+    private int analysisVersion;
+
+    private LocalDateTime createdAt;
+
+    public String getHash() { return hash; }
+    public void setHash(String hash) { this.hash = hash; }
+    public String getSequence() { return sequence; }
+    public void setSequence(String sequence) { this.sequence = sequence; }
+    public String getSequenceType() { return sequenceType; }
+    public void setSequenceType(String sequenceType) { this.sequenceType = sequenceType; }
+    public int getSequenceLength() { return sequenceLength; }
+    public void setSequenceLength(int sequenceLength) { this.sequenceLength = sequenceLength; }
+    public double getGcContent() { return gcContent; }
+    public void setGcContent(double gcContent) { this.gcContent = gcContent; }
+    public String getRnaTranscript() { return rnaTranscript; }
+    public void setRnaTranscript(String rnaTranscript) { this.rnaTranscript = rnaTranscript; }
+    public String getProteinSequence() { return proteinSequence; }
+    public void setProteinSequence(String proteinSequence) { this.proteinSequence = proteinSequence; }
+    public long getRefCount() { return refCount; }
+    public void setRefCount(long refCount) { this.refCount = refCount; }
+    public int getAnalysisVersion() { return analysisVersion; }
+    public void setAnalysisVersion(int analysisVersion) { this.analysisVersion = analysisVersion; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
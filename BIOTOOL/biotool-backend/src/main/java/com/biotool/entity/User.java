@@ -12,6 +12,9 @@ public class User {
     private String username;
     private String password;
 
+    // How many days saved analyses are kept before the purge job removes them; null means the global default applies
+    private Integer retentionDays;
+
     public User() {}
 
     public User(String username, String password) {
@@ -25,4 +28,6 @@ public class User {
     public void setUsername(String username) { this.username = username; }
     public String getPassword() { return password; }
     public void setPassword(String password) { this.password = password; }
-}
\ No newline at end of file
+    public Integer getRetentionDays() { return retentionDays; }
+    public void setRetentionDays(Integer retentionDays) { this.retentionDays = retentionDays; }
+}
\ No newline at end of file
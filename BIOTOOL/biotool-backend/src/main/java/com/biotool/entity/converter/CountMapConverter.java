@@ -0,0 +1,33 @@
+package com.biotool.entity.converter;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Stores a map of named counters as "key=count;key=count", so it fits in a single column.
+ */
+@Converter
+public class CountMapConverter implements AttributeConverter<Map<String, Long>, String> {
+
+    @Override
+    public String convertToDatabaseColumn(Map<String, Long> counts) {
+        if (counts == null) return null;
+        return counts.entrySet().stream()
+                .map(entry -> entry.getKey() + "=" + entry.getValue())
+                .collect(Collectors.joining(";"));
+    }
+
+    @Override
+    public Map<String, Long> convertToEntityAttribute(String column) {
+        Map<String, Long> counts = new TreeMap<>();
+        if (column == null || column.isEmpty()) return counts;
+        for (String entry : column.split(";")) {
+            int split = entry.lastIndexOf('=');
+            counts.put(entry.substring(0, split), Long.parseLong(entry.substring(split + 1)));
+        }
+        return counts;
+    }
+}
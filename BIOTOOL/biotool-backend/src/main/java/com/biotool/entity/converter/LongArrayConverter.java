@@ -0,0 +1,25 @@
+package com.biotool.entity.converter;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Stores a small array of counters as a comma-separated string, so it fits in a single column.
+ */
+@Converter
+public class LongArrayConverter implements AttributeConverter<long[], String> {
+
+    @Override
+    public String convertToDatabaseColumn(long[] values) {
+        if (values == null) return null;
+        return Arrays.stream(values).mapToObj(Long::toString).collect(Collectors.joining(","));
+    }
+
+    @Override
+    public long[] convertToEntityAttribute(String column) {
+        if (column == null || column.isEmpty()) return new long[0];
+        return Arrays.stream(column.split(",")).mapToLong(Long::parseLong).toArray();
+    }
+}
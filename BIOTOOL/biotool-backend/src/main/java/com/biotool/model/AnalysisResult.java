@@ -18,6 +18,8 @@ public class AnalysisResult {
     private List<String> openReadingFrames;
     private String reverseComplement;
     private double meltingTemperature;
+    private List<SequenceRegion> maskedRegions;
+    private List<SequenceRegion> ambiguousRegions;
 
     // Getters and Setters for all fields, required for JSON serialization
 
@@ -92,5 +94,21 @@ public class AnalysisResult {
     public void setMeltingTemperature(double meltingTemperature) {
         this.meltingTemperature = meltingTemperature;
     }
+
+    public List<SequenceRegion> getMaskedRegions() {
+        return maskedRegions;
+    }
+
+    public void setMaskedRegions(List<SequenceRegion> maskedRegions) {
+        this.maskedRegions = maskedRegions;
+    }
+
+    public List<SequenceRegion> getAmbiguousRegions() {
+        return ambiguousRegions;
+    }
+
+    public void setAmbiguousRegions(List<SequenceRegion> ambiguousRegions) {
+        this.ambiguousRegions = ambiguousRegions;
+    }
 }
 
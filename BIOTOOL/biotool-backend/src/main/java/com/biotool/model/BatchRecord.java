@@ -0,0 +1,21 @@
+package com.biotool.model;
+
+/**
+ * One record of a batch submission: its FASTA ID and its raw, not yet normalized sequence.
+ */
+public class BatchRecord {
+    private String id;
+    private String sequence;
+
+    public BatchRecord() {}
+
+    public BatchRecord(String id, String sequence) {
+        this.id = id;
+        this.sequence = sequence;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getSequence() { return sequence; }
+    public void setSequence(String sequence) { this.sequence = sequence; }
+}
@@ -0,0 +1,21 @@
+package com.biotool.model;
+
+/**
+ * The analysis of one batch record, keyed by the record's FASTA ID.
+ */
+public class BatchRecordResult {
+    private String id;
+    private AnalysisResult result;
+
+    public BatchRecordResult() {}
+
+    public BatchRecordResult(String id, AnalysisResult result) {
+        this.id = id;
+        this.result = result;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public AnalysisResult getResult() { return result; }
+    public void setResult(AnalysisResult result) { this.result = result; }
+}
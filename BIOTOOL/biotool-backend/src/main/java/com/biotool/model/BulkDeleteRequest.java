@@ -0,0 +1,23 @@
+package com.biotool.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Selects the saved analyses to remove in one bulk delete call.
+ * Either list explicit IDs, or give any combination of a creation-time range and a status.
+ */
+public class BulkDeleteRequest {
+    private List<Long> ids;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private String status;
+    public List<Long> getIds() { return ids; }
+    public void setIds(List<Long> ids) { this.ids = ids; }
+    public LocalDateTime getFrom() { return from; }
+    public void setFrom(LocalDateTime from) { this.from = from; }
+    public LocalDateTime getTo() { return to; }
+    public void setTo(LocalDateTime to) { this.to = to; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+}
@@ -0,0 +1,24 @@
+package com.biotool.model;
+
+/**
+ * A fragment of a virtual digest: [start, end) in 0-based top-strand coordinates. On a circular sequence the
+ * fragment that spans the origin has an end smaller than its start.
+ */
+public class DigestFragment {
+    private int start;
+    private int end;
+    private int length;
+
+    public DigestFragment(int start, int end, int length) {
+        this.start = start;
+        this.end = end;
+        this.length = length;
+    }
+
+    public int getStart() { return start; }
+    public void setStart(int start) { this.start = start; }
+    public int getEnd() { return end; }
+    public void setEnd(int end) { this.end = end; }
+    public int getLength() { return length; }
+    public void setLength(int length) { this.length = length; }
+}
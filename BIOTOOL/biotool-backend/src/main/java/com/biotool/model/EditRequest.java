@@ -0,0 +1,17 @@
+package com.biotool.model;
+
+/**
+ * A single edit to a sequence held in an edit session: delete deleteLength bases at position,
+ * then insert the given bases there. Substitutions, insertions and deletions are all expressed this way.
+ */
+public class EditRequest {
+    private int position;
+    private int deleteLength;
+    private String insert;
+    public int getPosition() { return position; }
+    public void setPosition(int position) { this.position = position; }
+    public int getDeleteLength() { return deleteLength; }
+    public void setDeleteLength(int deleteLength) { this.deleteLength = deleteLength; }
+    public String getInsert() { return insert; }
+    public void setInsert(String insert) { this.insert = insert; }
+}
@@ -0,0 +1,40 @@
+package com.biotool.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The state of an edit session after it is opened or edited.
+ * Statistics always describe the whole sequence; removedOrfs and addedOrfs list only the ORFs the last edit changed,
+ * with removed ORFs in the coordinates from before the edit and added ORFs in the coordinates after it.
+ * ORFs that are not listed keep their sequence; those downstream of the edit move by its change in length.
+ * Each listed entry groups the ORFs that end at one stop codon.
+ */
+public class EditSessionResult {
+
+    private String sessionId;
+    private int length;
+    private double gcContent;
+    private Map<Character, Integer> nucleotideCounts;
+    private double meltingTemperature;
+    private int orfCount;
+    private List<OrfLocation> removedOrfs;
+    private List<OrfLocation> addedOrfs;
+
+    public String getSessionId() { return sessionId; }
+    public void setSessionId(String sessionId) { this.sessionId = sessionId; }
+    public int getLength() { return length; }
+    public void setLength(int length) { this.length = length; }
+    public double getGcContent() { return gcContent; }
+    public void setGcContent(double gcContent) { this.gcContent = gcContent; }
+    public Map<Character, Integer> getNucleotideCounts() { return nucleotideCounts; }
+    public void setNucleotideCounts(Map<Character, Integer> nucleotideCounts) { this.nucleotideCounts = nucleotideCounts; }
+    public double getMeltingTemperature() { return meltingTemperature; }
+    public void setMeltingTemperature(double meltingTemperature) { this.meltingTemperature = meltingTemperature; }
+    public int getOrfCount() { return orfCount; }
+    public void setOrfCount(int orfCount) { this.orfCount = orfCount; }
+    public List<OrfLocation> getRemovedOrfs() { return removedOrfs; }
+    public void setRemovedOrfs(List<OrfLocation> removedOrfs) { this.removedOrfs = removedOrfs; }
+    public List<OrfLocation> getAddedOrfs() { return addedOrfs; }
+    public void setAddedOrfs(List<OrfLocation> addedOrfs) { this.addedOrfs = addedOrfs; }
+}
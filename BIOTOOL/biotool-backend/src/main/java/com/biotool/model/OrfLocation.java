@@ -0,0 +1,21 @@
+package com.biotool.model;
+
+/**
+ * Open reading frames in a sequence that share one stop codon, in 0-based coordinates: each in-frame ATG in
+ * starts, in ascending order, begins an ORF that runs to end, stop codon included. Nested ORFs are listed as one
+ * entry, and their bases are not included; they can be read from the session when needed.
+ */
+public class OrfLocation {
+    private int[] starts;
+    private int end;
+
+    public OrfLocation(int[] starts, int end) {
+        this.starts = starts;
+        this.end = end;
+    }
+
+    public int[] getStarts() { return starts; }
+    public void setStarts(int[] starts) { this.starts = starts; }
+    public int getEnd() { return end; }
+    public void setEnd(int end) { this.end = end; }
+}
@@ -0,0 +1,53 @@
+package com.biotool.model;
+
+import java.util.Map;
+
+/**
+ * Physico-chemical properties of one protein chain, as computed by the protein analysis engine.
+ * Molecular weight is the average mass in Daltons; the extinction coefficients are in M^-1 cm^-1 at 280 nm.
+ */
+public class ProteinProperties {
+
+    private String id;
+    private int length;
+    private double molecularWeight;
+    private double isoelectricPoint;
+    private double gravy;
+    private int extinctionCoefficientReduced;
+    private int extinctionCoefficientCystines;
+    private Map<Character, Integer> composition;
+    private int excludedResidues;
+
+    // The FASTA record ID (first word of the header), or null for a bare sequence
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    // Number of standard amino acids the properties were computed from
+    public int getLength() { return length; }
+    public void setLength(int length) { this.length = length; }
+
+    public double getMolecularWeight() { return molecularWeight; }
+    public void setMolecularWeight(double molecularWeight) { this.molecularWeight = molecularWeight; }
+
+    public double getIsoelectricPoint() { return isoelectricPoint; }
+    public void setIsoelectricPoint(double isoelectricPoint) { this.isoelectricPoint = isoelectricPoint; }
+
+    // Grand average of hydropathy (Kyte-Doolittle)
+    public double getGravy() { return gravy; }
+    public void setGravy(double gravy) { this.gravy = gravy; }
+
+    // Assuming all cysteines are reduced
+    public int getExtinctionCoefficientReduced() { return extinctionCoefficientReduced; }
+    public void setExtinctionCoefficientReduced(int extinctionCoefficientReduced) { this.extinctionCoefficientReduced = extinctionCoefficientReduced; }
+
+    // Assuming all cysteine pairs form cystines
+    public int getExtinctionCoefficientCystines() { return extinctionCoefficientCystines; }
+    public void setExtinctionCoefficientCystines(int extinctionCoefficientCystines) { this.extinctionCoefficientCystines = extinctionCoefficientCystines; }
+
+    public Map<Character, Integer> getComposition() { return composition; }
+    public void setComposition(Map<Character, Integer> composition) { this.composition = composition; }
+
+    // Stop codons ('*'), unknown residues ('X') and other non-standard letters that were left out
+    public int getExcludedResidues() { return excludedResidues; }
+    public void setExcludedResidues(int excludedResidues) { this.excludedResidues = excludedResidues; }
+}
@@ -0,0 +1,35 @@
+package com.biotool.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The result of a restriction analysis: every cut site of the chosen enzymes, how often each enzyme cuts,
+ * and the fragments left when all of them are used together.
+ */
+public class RestrictionDigest {
+
+    private int sequenceLength;
+    private boolean circular;
+    private Map<String, Integer> cutCounts;
+    private List<RestrictionSite> sites;
+    private List<DigestFragment> fragments;
+
+    public int getSequenceLength() { return sequenceLength; }
+    public void setSequenceLength(int sequenceLength) { this.sequenceLength = sequenceLength; }
+
+    public boolean isCircular() { return circular; }
+    public void setCircular(boolean circular) { this.circular = circular; }
+
+    // Number of cuts per enzyme, in catalog order; enzymes that do not cut are listed with 0
+    public Map<String, Integer> getCutCounts() { return cutCounts; }
+    public void setCutCounts(Map<String, Integer> cutCounts) { this.cutCounts = cutCounts; }
+
+    // Cut sites ordered by top-strand cut position
+    public List<RestrictionSite> getSites() { return sites; }
+    public void setSites(List<RestrictionSite> sites) { this.sites = sites; }
+
+    // Fragments in sequence order
+    public List<DigestFragment> getFragments() { return fragments; }
+    public void setFragments(List<DigestFragment> fragments) { this.fragments = fragments; }
+}
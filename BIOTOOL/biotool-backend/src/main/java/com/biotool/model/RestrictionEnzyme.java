@@ -0,0 +1,37 @@
+package com.biotool.model;
+
+/**
+ * A restriction enzyme from the built-in catalog.
+ * Cut positions are offsets from the 5' end of the recognition site on the top strand; a cut at offset k falls
+ * between the k-th and (k+1)-th base, so it may be negative or past the end of the site for enzymes that cut
+ * outside it.
+ */
+public class RestrictionEnzyme {
+    private final String name;
+    private final String site;
+    private final String recognitionSequence;
+    private final int topCut;
+    private final int bottomCut;
+
+    public RestrictionEnzyme(String name, String site, String recognitionSequence, int topCut, int bottomCut) {
+        this.name = name;
+        this.site = site;
+        this.recognitionSequence = recognitionSequence;
+        this.topCut = topCut;
+        this.bottomCut = bottomCut;
+    }
+
+    public String getName() { return name; }
+
+    // The site as written in REBASE notation, e.g. G^AATTC or GGTCTC(1/5)
+    public String getSite() { return site; }
+
+    // The recognition sequence alone, in IUPAC codes
+    public String getRecognitionSequence() { return recognitionSequence; }
+
+    public int getTopCut() { return topCut; }
+    public int getBottomCut() { return bottomCut; }
+
+    // Length of the single-stranded end left by the cut: positive for 5' overhangs, negative for 3', 0 for blunt
+    public int getOverhang() { return bottomCut - topCut; }
+}
@@ -0,0 +1,17 @@
+package com.biotool.model;
+
+import java.util.List;
+
+public class RestrictionRequest {
+    private String sequence;
+    // Enzyme names to digest with; all catalog enzymes when empty
+    private List<String> enzymes;
+    private boolean circular;
+
+    public String getSequence() { return sequence; }
+    public void setSequence(String sequence) { this.sequence = sequence; }
+    public List<String> getEnzymes() { return enzymes; }
+    public void setEnzymes(List<String> enzymes) { this.enzymes = enzymes; }
+    public boolean isCircular() { return circular; }
+    public void setCircular(boolean circular) { this.circular = circular; }
+}
@@ -0,0 +1,37 @@
+package com.biotool.model;
+
+/**
+ * One place where an enzyme cuts a sequence. Positions are 0-based; a cut at position p falls between the bases
+ * at p-1 and p. Both cut positions are given in top-strand coordinates.
+ */
+public class RestrictionSite {
+    private String enzyme;
+    private int recognitionStart;
+    private char strand;
+    private int topCut;
+    private int bottomCut;
+
+    public RestrictionSite(String enzyme, int recognitionStart, char strand, int topCut, int bottomCut) {
+        this.enzyme = enzyme;
+        this.recognitionStart = recognitionStart;
+        this.strand = strand;
+        this.topCut = topCut;
+        this.bottomCut = bottomCut;
+    }
+
+    public String getEnzyme() { return enzyme; }
+    public void setEnzyme(String enzyme) { this.enzyme = enzyme; }
+
+    // Where the recognition site starts on the top strand
+    public int getRecognitionStart() { return recognitionStart; }
+    public void setRecognitionStart(int recognitionStart) { this.recognitionStart = recognitionStart; }
+
+    // '+' if the site was read on the top strand, '-' if on the bottom strand
+    public char getStrand() { return strand; }
+    public void setStrand(char strand) { this.strand = strand; }
+
+    public int getTopCut() { return topCut; }
+    public void setTopCut(int topCut) { this.topCut = topCut; }
+    public int getBottomCut() { return bottomCut; }
+    public void setBottomCut(int bottomCut) { this.bottomCut = bottomCut; }
+}
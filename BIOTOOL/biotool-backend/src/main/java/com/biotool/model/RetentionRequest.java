@@ -0,0 +1,7 @@
+package com.biotool.model;
+
+public class RetentionRequest {
+    private Integer days;
+    public Integer getDays() { return days; }
+    public void setDays(Integer days) { this.days = days; }
+}
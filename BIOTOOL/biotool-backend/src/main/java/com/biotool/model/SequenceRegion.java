@@ -0,0 +1,19 @@
+package com.biotool.model;
+
+/**
+ * A run of positions in a normalized sequence: [start, end) in 0-based coordinates.
+ */
+public class SequenceRegion {
+    private int start;
+    private int end;
+
+    public SequenceRegion(int start, int end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public int getStart() { return start; }
+    public void setStart(int start) { this.start = start; }
+    public int getEnd() { return end; }
+    public void setEnd(int end) { this.end = end; }
+}
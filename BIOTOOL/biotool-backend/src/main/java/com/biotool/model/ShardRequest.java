@@ -0,0 +1,27 @@
+package com.biotool.model;
+
+import java.util.List;
+
+/**
+ * A slice of a batch job sent from the coordinator to a worker.
+ */
+public class ShardRequest {
+    private Long jobId;
+    private int shardIndex;
+    private List<BatchRecord> records;
+
+    public ShardRequest() {}
+
+    public ShardRequest(Long jobId, int shardIndex, List<BatchRecord> records) {
+        this.jobId = jobId;
+        this.shardIndex = shardIndex;
+        this.records = records;
+    }
+
+    public Long getJobId() { return jobId; }
+    public void setJobId(Long jobId) { this.jobId = jobId; }
+    public int getShardIndex() { return shardIndex; }
+    public void setShardIndex(int shardIndex) { this.shardIndex = shardIndex; }
+    public List<BatchRecord> getRecords() { return records; }
+    public void setRecords(List<BatchRecord> records) { this.records = records; }
+}
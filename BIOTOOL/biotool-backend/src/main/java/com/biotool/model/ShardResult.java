@@ -0,0 +1,31 @@
+package com.biotool.model;
+
+import java.util.List;
+
+/**
+ * A worker's answer to a {@link ShardRequest}: one result per record, in the order the records were sent.
+ */
+public class ShardResult {
+    private Long jobId;
+    private int shardIndex;
+    private String workerId;
+    private List<BatchRecordResult> results;
+
+    public ShardResult() {}
+
+    public ShardResult(Long jobId, int shardIndex, String workerId, List<BatchRecordResult> results) {
+        this.jobId = jobId;
+        this.shardIndex = shardIndex;
+        this.workerId = workerId;
+        this.results = results;
+    }
+
+    public Long getJobId() { return jobId; }
+    public void setJobId(Long jobId) { this.jobId = jobId; }
+    public int getShardIndex() { return shardIndex; }
+    public void setShardIndex(int shardIndex) { this.shardIndex = shardIndex; }
+    public String getWorkerId() { return workerId; }
+    public void setWorkerId(String workerId) { this.workerId = workerId; }
+    public List<BatchRecordResult> getResults() { return results; }
+    public void setResults(List<BatchRecordResult> results) { this.results = results; }
+}
@@ -0,0 +1,27 @@
+package com.biotool.model;
+
+/**
+ * Sent periodically by each worker to the coordinator to register itself and show it is alive.
+ */
+public class WorkerHeartbeat {
+    private String workerId;
+    private String url;
+    private int slots;
+
+    public WorkerHeartbeat() {}
+
+    public WorkerHeartbeat(String workerId, String url, int slots) {
+        this.workerId = workerId;
+        this.url = url;
+        this.slots = slots;
+    }
+
+    public String getWorkerId() { return workerId; }
+    public void setWorkerId(String workerId) { this.workerId = workerId; }
+    // The base URL the coordinator uses to reach the worker, e.g. http://host:8081
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+    // How many shards the worker runs at once, normally its core count
+    public int getSlots() { return slots; }
+    public void setSlots(int slots) { this.slots = slots; }
+}
@@ -0,0 +1,35 @@
+package com.biotool.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * The coordinator's view of one registered worker.
+ */
+public class WorkerStatus {
+    private String workerId;
+    private String url;
+    private int slots;
+    private int inFlight;
+    private long completedShards;
+    private long failedShards;
+    private LocalDateTime lastHeartbeat;
+
+    public WorkerStatus(String workerId, String url, int slots, int inFlight, long completedShards,
+                        long failedShards, LocalDateTime lastHeartbeat) {
+        this.workerId = workerId;
+        this.url = url;
+        this.slots = slots;
+        this.inFlight = inFlight;
+        this.completedShards = completedShards;
+        this.failedShards = failedShards;
+        this.lastHeartbeat = lastHeartbeat;
+    }
+
+    public String getWorkerId() { return workerId; }
+    public String getUrl() { return url; }
+    public int getSlots() { return slots; }
+    public int getInFlight() { return inFlight; }
+    public long getCompletedShards() { return completedShards; }
+    public long getFailedShards() { return failedShards; }
+    public LocalDateTime getLastHeartbeat() { return lastHeartbeat; }
+}
@@ -0,0 +1,56 @@
+package com.biotool.repository;
+
+import com.biotool.entity.ArchiveStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * This repository provides methods to interact with the 'archive_stats' table, keyed by user ID.
+ */
+@Repository
+public interface ArchiveStatsRepository extends JpaRepository<ArchiveStats, Long> {
+
+    /**
+     * Loads a user's statistics row and locks it until the current transaction ends,
+     * so concurrent saves and deletes for the same user apply their changes one after another.
+     *
+     * @param userId The ID of the user.
+     * @return The locked statistics row, if it exists yet.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ArchiveStats s WHERE s.userId = :userId")
+    Optional<ArchiveStats> findByUserIdForUpdate(Long userId);
+
+    /**
+     * Creates a user's statistics row unless one already exists. This is a single atomic statement, so when two
+     * transactions create the same row at once the second one waits for the first and then leaves its row alone.
+     *
+     * @return 1 if the row was created, 0 if it already existed (some drivers report 2 or more for that case).
+     */
+    @Modifying
+    @Query(value = "INSERT INTO archive_stats (user_id, total_analyses, total_base_pairs, gc_histogram,"
+            + " sequence_type_counts, updated_at) VALUES (:userId, :totalAnalyses, :totalBasePairs, :gcHistogram,"
+            + " :sequenceTypeCounts, :updatedAt) ON DUPLICATE KEY UPDATE user_id = user_id", nativeQuery = true)
+    int insertIfAbsent(Long userId, long totalAnalyses, long totalBasePairs, String gcHistogram,
+                       String sequenceTypeCounts, LocalDateTime updatedAt);
+
+    /**
+     * Finds users who have no statistics row yet, such as users created before statistics were kept, in ID order.
+     *
+     * @param pageable Limits how many IDs are returned, so callers can work in chunks.
+     * @return The user IDs.
+     */
+    @Query("SELECT u.id FROM User u WHERE NOT EXISTS (SELECT s.userId FROM ArchiveStats s WHERE s.userId = u.id)"
+            + " ORDER BY u.id")
+    List<Long> findUserIdsWithoutStats(Pageable pageable);
+
+}
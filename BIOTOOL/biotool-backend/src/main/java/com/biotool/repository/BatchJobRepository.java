@@ -0,0 +1,59 @@
+package com.biotool.repository;
+
+import com.biotool.entity.BatchJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * This repository provides methods to interact with the 'batch_jobs' table.
+ */
+@Repository
+public interface BatchJobRepository extends JpaRepository<BatchJob, Long> {
+
+    /**
+     * Finds one of a user's jobs; other users' jobs are treated as nonexistent.
+     */
+    Optional<BatchJob> findByIdAndUserId(Long id, Long userId);
+
+    /**
+     * Lists a user's jobs, newest first.
+     */
+    List<BatchJob> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    /**
+     * Renews the leases of the jobs this instance is running. Jobs that are no longer queued or running,
+     * for example because another instance failed them as abandoned, are left alone.
+     */
+    @Modifying
+    @Query("UPDATE BatchJob j SET j.heartbeatAt = :now WHERE j.id IN :ids AND j.status IN ('QUEUED', 'RUNNING')")
+    int renewLeases(Collection<Long> ids, LocalDateTime now);
+
+    /**
+     * Writes the progress of a job, but only while its row is still queued or running, so that a stalled
+     * instance cannot overwrite a job that was already failed as abandoned.
+     * @return 1 if the row was written, 0 if the job is no longer queued or running.
+     */
+    @Modifying
+    @Query("UPDATE BatchJob j SET j.status = :#{#job.status}, j.completedRecords = :#{#job.completedRecords},"
+            + " j.completedShards = :#{#job.completedShards}, j.retriedShards = :#{#job.retriedShards},"
+            + " j.errorMessage = :#{#job.errorMessage}, j.finishedAt = :#{#job.finishedAt},"
+            + " j.heartbeatAt = :#{#job.heartbeatAt}, j.resultsExpireAt = :#{#job.resultsExpireAt}"
+            + " WHERE j.id = :#{#job.id} AND j.status IN ('QUEUED', 'RUNNING')")
+    int updateProgress(BatchJob job);
+
+    /**
+     * Fails queued and running jobs whose lease was last renewed before the cutoff, i.e. jobs whose instance
+     * crashed or was restarted while running them.
+     */
+    @Modifying
+    @Query("UPDATE BatchJob j SET j.status = 'FAILED', j.errorMessage = :message, j.finishedAt = :now"
+            + " WHERE j.status IN ('QUEUED', 'RUNNING') AND (j.heartbeatAt IS NULL OR j.heartbeatAt < :cutoff)")
+    int failAbandoned(LocalDateTime cutoff, LocalDateTime now, String message);
+}
@@ -0,0 +1,55 @@
+package com.biotool.repository;
+
+import com.biotool.entity.BatchJobResult;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+/**
+ * This repository provides methods to interact with the 'batch_job_results' table.
+ */
+@Repository
+public interface BatchJobResultRepository extends JpaRepository<BatchJobResult, Long> {
+
+    /**
+     * Streams a job's stored shards in shard order. Each row can hold megabytes of results,
+     * so only a few are fetched at a time.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "2"),
+            @QueryHint(name = HINT_READONLY, value = "true"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT r FROM BatchJobResult r WHERE r.jobId = :jobId ORDER BY r.shardIndex")
+    Stream<BatchJobResult> streamByJobId(Long jobId);
+
+    /**
+     * Counts a job's stored shards.
+     */
+    long countByJobId(Long jobId);
+
+    /**
+     * Removes the stored results of one shard, so a shard that is stored again replaces them.
+     */
+    @Modifying
+    @Query("DELETE FROM BatchJobResult r WHERE r.jobId = :jobId AND r.shardIndex = :shardIndex")
+    int deleteShard(Long jobId, int shardIndex);
+
+    /**
+     * Deletes the stored results of every job that finished before the cutoff, whether it completed or failed.
+     */
+    @Modifying
+    @Query("DELETE FROM BatchJobResult r WHERE r.jobId IN"
+            + " (SELECT j.id FROM BatchJob j WHERE j.finishedAt < :cutoff)")
+    int deleteForJobsFinishedBefore(LocalDateTime cutoff);
+}
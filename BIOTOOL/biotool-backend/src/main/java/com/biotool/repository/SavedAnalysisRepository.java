@@ -2,10 +2,25 @@ package com.biotool.repository;
 
 import com.biotool.entity.SavedAnalysis;
 import com.biotool.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 /**
  * This repository provides methods to interact with the 'saved_analyses' table in the database.
@@ -17,10 +32,110 @@ public interface SavedAnalysisRepository extends JpaRepository<SavedAnalysis, Lo
     /**
      * A custom method to find all analyses saved by a specific user.
      * Spring Data JPA will automatically create the query for this method based on its name.
+     * The shared sequences are fetched in the same query rather than one by one.
      *
      * @param user The user whose saved analyses we want to retrieve.
      * @return A list of SavedAnalysis objects.
      */
+    @EntityGraph(attributePaths = "sequenceBlob")
     List<SavedAnalysis> findByUser(User user);
 
+    /**
+     * Checks whether a user has saved anything at all, without loading any rows.
+     *
+     * @param user The user to check.
+     * @return True if the user has at least one saved analysis.
+     */
+    boolean existsByUser(User user);
+
+    /**
+     * Streams all analyses saved by a user, oldest first, through a forward-only database cursor.
+     * Rows are fetched from the driver in small batches and loaded read-only, so the caller can walk an archive
+     * of any size without materializing it. Must be consumed inside a transaction and closed when done.
+     *
+     * @param user The user whose saved analyses we want to stream.
+     * @return A lazily populated stream of SavedAnalysis objects.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "100"),
+            @QueryHint(name = HINT_READONLY, value = "true"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT a FROM SavedAnalysis a LEFT JOIN FETCH a.sequenceBlob WHERE a.user = :user ORDER BY a.id")
+    Stream<SavedAnalysis> streamByUser(User user);
+
+    /**
+     * Finds the IDs of a user's analyses that match the given filters, in ID order.
+     * Any filter left null is ignored. Only IDs are selected, so no sequence data is loaded.
+     *
+     * @param user The owner of the analyses.
+     * @param from Inclusive lower bound on the creation time, or null.
+     * @param to Exclusive upper bound on the creation time, or null.
+     * @param status The status to match, or null.
+     * @param pageable Limits how many IDs are returned, so callers can work in chunks.
+     * @return The matching IDs.
+     */
+    @Query("SELECT a.id FROM SavedAnalysis a WHERE a.user = :user"
+            + " AND (:from IS NULL OR a.createdAt >= :from)"
+            + " AND (:to IS NULL OR a.createdAt < :to)"
+            + " AND (:status IS NULL OR a.status = :status)"
+            + " ORDER BY a.id")
+    List<Long> findIdsByUserAndFilter(User user, LocalDateTime from, LocalDateTime to, String status, Pageable pageable);
+
+    /**
+     * Deletes the given analyses in a single set-based statement, but only those owned by the user.
+     * Entities are not loaded, so IDs that belong to someone else (or do not exist) are simply not counted.
+     *
+     * @param user The owner of the analyses.
+     * @param ids The IDs to delete.
+     * @return The number of rows deleted.
+     */
+    @Modifying
+    @Query("DELETE FROM SavedAnalysis a WHERE a.user = :user AND a.id IN :ids")
+    int deleteByUserAndIdIn(User user, Collection<Long> ids);
+
+    /**
+     * Reads just the type, length and GC content of the given analyses, which is all the archive statistics need,
+     * along with the hash of each one's shared sequence.
+     *
+     * @param user The owner of the analyses.
+     * @param ids The IDs to read.
+     * @return One [sequenceType, sequenceLength, gcContent, sequenceHash] row per analysis found;
+     *         the hash is null for rows that do not yet share their sequence.
+     */
+    @Query("SELECT a.sequenceType, a.sequenceLength, a.gcContent, b.hash FROM SavedAnalysis a"
+            + " LEFT JOIN a.sequenceBlob b WHERE a.user = :user AND a.id IN :ids")
+    List<Object[]> findStatsByUserAndIdIn(User user, Collection<Long> ids);
+
+    /**
+     * Streams the type, length and GC content of every analysis a user has saved, for recomputing statistics.
+     * Must be consumed inside a transaction and closed when done.
+     *
+     * @param user The owner of the analyses.
+     * @return A lazily populated stream of [sequenceType, sequenceLength, gcContent] rows.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT a.sequenceType, a.sequenceLength, a.gcContent FROM SavedAnalysis a WHERE a.user = :user")
+    Stream<Object[]> streamStatsByUser(User user);
+
+    /**
+     * Finds the IDs of analyses that still hold their own copy of the sequence, for moving them to the shared store.
+     *
+     * @param pageable Limits how many IDs are returned, so callers can work in chunks.
+     * @return The IDs, in ID order.
+     */
+    @Query("SELECT a.id FROM SavedAnalysis a WHERE a.sequenceBlob IS NULL AND a.originalSequence IS NOT NULL ORDER BY a.id")
+    List<Long> findUnsharedIds(Pageable pageable);
+
+    /**
+     * Loads those of the given analyses that still hold their own copy of the sequence, and locks them until the
+     * current transaction ends, so instances migrating at the same time never move the same analysis twice.
+     *
+     * @param ids The IDs found by findUnsharedIds.
+     * @return The analyses that are still unshared once the lock is held.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM SavedAnalysis a WHERE a.id IN :ids AND a.sequenceBlob IS NULL AND a.originalSequence IS NOT NULL")
+    List<SavedAnalysis> lockUnshared(Collection<Long> ids);
+
 }
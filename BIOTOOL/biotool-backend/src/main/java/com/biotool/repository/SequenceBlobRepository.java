@@ -0,0 +1,94 @@
+package com.biotool.repository;
+
+import com.biotool.entity.SequenceBlob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * This repository provides methods to interact with the 'sequence_blobs' table, keyed by sequence hash.
+ * Reference counts are only ever changed with single atomic statements, so concurrent saves and deletes
+ * of the same sequence never lose an update.
+ */
+@Repository
+public interface SequenceBlobRepository extends JpaRepository<SequenceBlob, String> {
+
+    /**
+     * Reads just the cached type, length, GC content and analysis version of a stored sequence, without loading its text.
+     *
+     * @param hash The sequence hash.
+     * @return One [sequenceType, sequenceLength, gcContent, analysisVersion] row, or none if the sequence is not stored.
+     */
+    @Query("SELECT b.sequenceType, b.sequenceLength, b.gcContent, b.analysisVersion FROM SequenceBlob b WHERE b.hash = :hash")
+    List<Object[]> findSummaryByHash(String hash);
+
+    /**
+     * Replaces the stored results of a sequence with ones computed by a newer analysis version.
+     * Results already at that version or newer are left alone.
+     */
+    @Modifying
+    @Query("UPDATE SequenceBlob b SET b.sequenceType = :sequenceType, b.sequenceLength = :sequenceLength,"
+            + " b.gcContent = :gcContent, b.rnaTranscript = :rnaTranscript, b.proteinSequence = :proteinSequence,"
+            + " b.analysisVersion = :analysisVersion WHERE b.hash = :hash AND b.analysisVersion < :analysisVersion")
+    int updateAnalysis(String hash, String sequenceType, int sequenceLength, double gcContent, String rnaTranscript,
+                       String proteinSequence, int analysisVersion);
+
+    /**
+     * Adds references to a stored sequence.
+     *
+     * @return 1 if the sequence was found, 0 if it has meanwhile been removed.
+     */
+    @Modifying
+    @Query("UPDATE SequenceBlob b SET b.refCount = b.refCount + :count WHERE b.hash = :hash")
+    int addReferences(String hash, long count);
+
+    /**
+     * Stores a sequence with one reference, or adds a reference if another transaction stored it first.
+     * This is a single atomic statement, so concurrent first saves of the same sequence cannot collide.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO sequence_blobs (hash, sequence, sequence_type, sequence_length, gc_content,"
+            + " rna_transcript, protein_sequence, analysis_version, ref_count, created_at)"
+            + " VALUES (:hash, :sequence, :sequenceType, :sequenceLength, :gcContent,"
+            + " :rnaTranscript, :proteinSequence, :analysisVersion, 1, :createdAt)"
+            + " ON DUPLICATE KEY UPDATE ref_count = ref_count + 1", nativeQuery = true)
+    void insertOrReference(String hash, String sequence, String sequenceType, int sequenceLength, double gcContent,
+                           String rnaTranscript, String proteinSequence, int analysisVersion, LocalDateTime createdAt);
+
+    /**
+     * Removes the given sequences once nothing refers to them any more. The reference count is double-checked
+     * against the saved analyses themselves, so a drifted count can never remove a sequence still in use.
+     *
+     * @return The number of sequences removed.
+     */
+    @Modifying
+    @Query("DELETE FROM SequenceBlob b WHERE b.hash IN :hashes AND b.refCount <= 0"
+            + " AND NOT EXISTS (SELECT a.id FROM SavedAnalysis a WHERE a.sequenceBlob = b)")
+    int deleteUnreferenced(Collection<String> hashes);
+
+    /**
+     * Lists stored sequence hashes in order, starting after the given one, so callers can walk the table in chunks.
+     */
+    @Query("SELECT b.hash FROM SequenceBlob b WHERE b.hash > :after ORDER BY b.hash")
+    List<String> findHashesAfter(String after, Pageable pageable);
+
+    /**
+     * Recomputes the reference counts of the given sequences from the saved analyses.
+     */
+    @Modifying
+    @Query("UPDATE SequenceBlob b SET b.refCount = (SELECT COUNT(a) FROM SavedAnalysis a WHERE a.sequenceBlob = b)"
+            + " WHERE b.hash IN :hashes")
+    int recountReferences(Collection<String> hashes);
+
+    /**
+     * Finds sequences that nothing refers to any more, for the reconciliation to remove.
+     */
+    @Query("SELECT b.hash FROM SequenceBlob b WHERE b.refCount <= 0")
+    List<String> findUnreferencedHashes();
+}
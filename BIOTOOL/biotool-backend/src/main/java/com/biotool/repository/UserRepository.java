@@ -1,12 +1,17 @@
 package com.biotool.repository;
 
 import com.biotool.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     Boolean existsByUsername(String username);
-}
\ No newline at end of file
+    // Keyset pages of users in ID order, for jobs that walk every user without loading them all at once
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+    List<User> findByRetentionDaysNotNullAndIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+}
\ No newline at end of file
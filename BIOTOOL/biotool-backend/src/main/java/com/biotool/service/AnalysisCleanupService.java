@@ -0,0 +1,114 @@
+package com.biotool.service;
+
+import com.biotool.entity.User;
+import com.biotool.repository.SavedAnalysisRepository;
+import com.biotool.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Removes saved analyses in bulk, either on request or through the scheduled retention purge.
+ * All deletes are ownership-scoped, set-based statements that never load the entities, and they run
+ * in chunks with one short transaction per chunk so that large cleanups do not hold row locks for long.
+ */
+@Service
+public class AnalysisCleanupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisCleanupService.class);
+
+    @Autowired
+    private SavedAnalysisRepository savedAnalysisRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ArchiveStatsService archiveStatsService;
+
+    @Value("${biotool.cleanup.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${biotool.retention.default-days:0}")
+    private int defaultRetentionDays;
+
+    /**
+     * Deletes the listed analyses that belong to the user. IDs owned by other users are ignored.
+     * @return The number of analyses deleted.
+     */
+    public int deleteByIds(User user, Collection<Long> ids) {
+        List<Long> idList = new ArrayList<>(ids);
+        int deleted = 0;
+        for (int start = 0; start < idList.size(); start += chunkSize) {
+            List<Long> chunk = idList.subList(start, Math.min(start + chunkSize, idList.size()));
+            deleted += deleteChunk(user, chunk);
+        }
+        return deleted;
+    }
+
+    /**
+     * Deletes all of the user's analyses matching the filters. Any filter left null is ignored.
+     * @param from Inclusive lower bound on the creation time, or null.
+     * @param to Exclusive upper bound on the creation time, or null.
+     * @param status The status to match, or null.
+     * @return The number of analyses deleted.
+     */
+    public int deleteByFilter(User user, LocalDateTime from, LocalDateTime to, String status) {
+        int deleted = 0;
+        while (true) {
+            List<Long> chunk = savedAnalysisRepository.findIdsByUserAndFilter(
+                    user, from, to, status, PageRequest.ofSize(chunkSize));
+            if (chunk.isEmpty()) {
+                return deleted;
+            }
+            deleted += deleteChunk(user, chunk);
+            if (chunk.size() < chunkSize) {
+                return deleted;
+            }
+        }
+    }
+
+    /**
+     * Enforces each user's retention period by deleting analyses older than it.
+     * Users without their own setting fall back to biotool.retention.default-days; 0 keeps analyses forever.
+     */
+    @Scheduled(cron = "${biotool.retention.purge-cron:0 30 3 * * *}")
+    public void purgeExpiredAnalyses() {
+        int total = 0;
+        long lastId = 0;
+        while (true) {
+            // Users are read a page at a time; without a default retention only users with their own setting matter
+            PageRequest page = PageRequest.ofSize(chunkSize);
+            List<User> users = defaultRetentionDays > 0
+                    ? userRepository.findByIdGreaterThanOrderByIdAsc(lastId, page)
+                    : userRepository.findByRetentionDaysNotNullAndIdGreaterThanOrderByIdAsc(lastId, page);
+            for (User user : users) {
+                int days = user.getRetentionDays() != null ? user.getRetentionDays() : defaultRetentionDays;
+                if (days > 0) {
+                    total += deleteByFilter(user, null, LocalDateTime.now().minusDays(days), null);
+                }
+                lastId = user.getId();
+            }
+            if (users.size() < chunkSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            logger.info("Retention purge deleted {} saved analyses", total);
+        }
+    }
+
+    // Each chunk is its own transaction, which also keeps the user's archive statistics in step.
+    private int deleteChunk(User user, List<Long> ids) {
+        return archiveStatsService.delete(user, ids);
+    }
+}
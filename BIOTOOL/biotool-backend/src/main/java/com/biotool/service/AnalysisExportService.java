@@ -0,0 +1,169 @@
+package com.biotool.service;
+
+import com.biotool.entity.SavedAnalysis;
+import com.biotool.entity.User;
+import com.biotool.repository.SavedAnalysisRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Writes a user's saved analyses to an output stream in one of several export formats.
+ * Rows are read through a forward-only cursor and detached as soon as they are written,
+ * so memory use stays flat no matter how large the archive is.
+ */
+@Service
+public class AnalysisExportService {
+
+    public enum ExportFormat {
+        FASTA("text/x-fasta", "fasta"),
+        CSV("text/csv", "csv"),
+        TSV("text/tab-separated-values", "tsv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        ExportFormat(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() { return contentType; }
+        public String getExtension() { return extension; }
+    }
+
+    private static final String[] SUMMARY_COLUMNS = {
+            "id", "archiveId", "createdAt", "status", "sequenceType", "sequenceLength", "gcContent", "proteinSequence",
+            "originalSequence"
+    };
+
+    // FASTA sequence lines are wrapped at the conventional width.
+    private static final int FASTA_LINE_WIDTH = 60;
+
+    @Autowired
+    private SavedAnalysisRepository savedAnalysisRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Streams every analysis saved by the user to the given output, holding the database cursor
+     * only for as long as the transfer takes.
+     * @param user The owner of the analyses to export.
+     * @param format The export format.
+     * @param out The destination; it is flushed but not closed.
+     */
+    @Transactional(readOnly = true)
+    public void export(User user, ExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        try (Stream<SavedAnalysis> rows = savedAnalysisRepository.streamByUser(user)) {
+            Iterator<SavedAnalysis> iterator = rows.iterator();
+            switch (format) {
+                case FASTA:
+                    while (iterator.hasNext()) writeFasta(next(iterator), writer);
+                    break;
+                case CSV:
+                case TSV:
+                    char separator = format == ExportFormat.CSV ? ',' : '\t';
+                    writeRow(writer, separator, (Object[]) SUMMARY_COLUMNS);
+                    while (iterator.hasNext()) writeSummary(next(iterator), writer, separator);
+                    break;
+                case NDJSON:
+                    JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+                    generator.setRootValueSeparator(null);
+                    while (iterator.hasNext()) writeJson(next(iterator), generator, writer);
+                    generator.flush();
+                    break;
+            }
+        }
+        writer.flush();
+    }
+
+    // Detach each row once it is handed out so the persistence context never grows with the archive.
+    private SavedAnalysis next(Iterator<SavedAnalysis> iterator) {
+        SavedAnalysis analysis = iterator.next();
+        entityManager.detach(analysis);
+        if (analysis.getSequenceBlob() != null) {
+            entityManager.detach(analysis.getSequenceBlob());
+        }
+        return analysis;
+    }
+
+    private void writeFasta(SavedAnalysis analysis, Writer writer) throws IOException {
+        writer.write('>');
+        writer.write(analysis.getArchiveId() != null ? analysis.getArchiveId() : "analysis-" + analysis.getId());
+        writer.write(" type=" + analysis.getSequenceType()
+                + " length=" + analysis.getSequenceLength()
+                + " gc=" + String.format(Locale.ROOT, "%.2f", analysis.getGcContent())
+                + " created=" + analysis.getCreatedAt());
+        writer.write('\n');
+        String sequence = analysis.getOriginalSequence() != null ? analysis.getOriginalSequence() : "";
+        for (int i = 0; i < sequence.length(); i += FASTA_LINE_WIDTH) {
+            writer.write(sequence, i, Math.min(FASTA_LINE_WIDTH, sequence.length() - i));
+            writer.write('\n');
+        }
+    }
+
+    private void writeSummary(SavedAnalysis analysis, Writer writer, char separator) throws IOException {
+        writeRow(writer, separator,
+                analysis.getId(), analysis.getArchiveId(), analysis.getCreatedAt(), analysis.getStatus(),
+                analysis.getSequenceType(), analysis.getSequenceLength(),
+                String.format(Locale.ROOT, "%.4f", analysis.getGcContent()), analysis.getProteinSequence(),
+                analysis.getOriginalSequence());
+    }
+
+    private void writeRow(Writer writer, char separator, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) writer.write(separator);
+            String value = values[i] == null ? "" : values[i].toString();
+            if (separator == ',') {
+                writer.write(escapeCsv(value));
+            } else {
+                // TSV has no quoting, so embedded tabs and line breaks are flattened to spaces.
+                writer.write(value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' '));
+            }
+        }
+        writer.write('\n');
+    }
+
+    private static String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private void writeJson(SavedAnalysis analysis, JsonGenerator generator, Writer writer) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", analysis.getId());
+        generator.writeStringField("archiveId", analysis.getArchiveId());
+        generator.writeStringField("createdAt", analysis.getCreatedAt() != null ? analysis.getCreatedAt().toString() : null);
+        generator.writeStringField("status", analysis.getStatus());
+        generator.writeStringField("sequenceType", analysis.getSequenceType());
+        generator.writeNumberField("sequenceLength", analysis.getSequenceLength());
+        generator.writeNumberField("gcContent", analysis.getGcContent());
+        generator.writeStringField("originalSequence", analysis.getOriginalSequence());
+        generator.writeStringField("rnaTranscript", analysis.getRnaTranscript());
+        generator.writeStringField("proteinSequence", analysis.getProteinSequence());
+        generator.writeEndObject();
+        generator.flush();
+        writer.write('\n');
+    }
+}
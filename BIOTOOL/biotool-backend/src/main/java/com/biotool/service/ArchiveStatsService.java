@@ -0,0 +1,219 @@
+package com.biotool.service;
+
+import com.biotool.entity.ArchiveStats;
+import com.biotool.entity.SavedAnalysis;
+import com.biotool.entity.User;
+import com.biotool.entity.converter.CountMapConverter;
+import com.biotool.entity.converter.LongArrayConverter;
+import com.biotool.repository.ArchiveStatsRepository;
+import com.biotool.repository.SavedAnalysisRepository;
+import com.biotool.repository.UserRepository;
+import com.biotool.service.SequenceNormalizer.NormalizedSequence;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Keeps each user's archive statistics in step with their saved analyses.
+ * Saves and deletes go through this service so the statistics row is updated in the same transaction,
+ * and a periodic reconciliation recomputes every row from scratch to repair any drift.
+ * A user without a row, such as one created before statistics were kept, gets one computed from their saved
+ * analyses: at startup for all such users, or on their first save or delete if that comes first.
+ */
+@Service
+public class ArchiveStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveStatsService.class);
+
+    @Autowired
+    private ArchiveStatsRepository archiveStatsRepository;
+
+    @Autowired
+    private SavedAnalysisRepository savedAnalysisRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SequenceStoreService sequenceStoreService;
+
+    private static final int PAGE_SIZE = 500;
+
+    // Creates missing statistics rows outside the caller's transaction; see lockStats
+    private TransactionTemplate createTransaction;
+
+    @PostConstruct
+    void initCreateTransaction() {
+        createTransaction = new TransactionTemplate(transactionManager);
+        createTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Saves a new user together with their empty statistics row, in one transaction.
+     * @param user The user to create.
+     * @return The saved user.
+     */
+    @Transactional
+    public User createUser(User user) {
+        User saved = userRepository.save(user);
+        archiveStatsRepository.save(new ArchiveStats(saved.getId()));
+        return saved;
+    }
+
+    /**
+     * Saves an analysis of the given sequence and adds it to its owner's statistics. The sequence is shared with
+     * any other analysis of the same sequence, and is only analyzed if it has not been stored before.
+     * @param analysis The analysis to save; its user must be set.
+     * @param normalized The sequence being saved.
+     * @return The saved analysis.
+     */
+    @Transactional
+    public SavedAnalysis save(SavedAnalysis analysis, NormalizedSequence normalized) {
+        ArchiveStats stats = lockStats(analysis.getUser().getId());
+        sequenceStoreService.attach(analysis, normalized);
+        SavedAnalysis saved = savedAnalysisRepository.save(analysis);
+        stats.apply(saved.getSequenceType(), saved.getSequenceLength(), saved.getGcContent(), 1);
+        return saved;
+    }
+
+    /**
+     * Deletes the listed analyses owned by the user with one set-based statement and subtracts them from the
+     * user's statistics and from the reference counts of their shared sequences. Only the scalar columns needed for
+     * this are read; the rows are never loaded.
+     * @return The number of analyses deleted.
+     */
+    @Transactional
+    public int delete(User user, Collection<Long> ids) {
+        ArchiveStats stats = lockStats(user.getId());
+        List<Object[]> removed = savedAnalysisRepository.findStatsByUserAndIdIn(user, ids);
+        if (removed.isEmpty()) {
+            return 0;
+        }
+        int deleted = savedAnalysisRepository.deleteByUserAndIdIn(user, ids);
+        for (Object[] row : removed) {
+            stats.apply((String) row[0], (Integer) row[1], (Double) row[2], -1);
+        }
+        sequenceStoreService.release(SequenceStoreService.countHashes(removed, 3));
+        return deleted;
+    }
+
+    /**
+     * Reads a user's statistics. Users who have never saved anything get an empty summary.
+     */
+    @Transactional(readOnly = true)
+    public ArchiveStats getStats(Long userId) {
+        return archiveStatsRepository.findById(userId).orElseGet(() -> new ArchiveStats(userId));
+    }
+
+    /**
+     * Recomputes every user's statistics from their saved analyses, one user per transaction.
+     */
+    @Scheduled(cron = "${biotool.stats.reconcile-cron:0 0 4 * * *}")
+    public void reconcileAll() {
+        int corrected = 0;
+        long lastId = 0;
+        while (true) {
+            List<User> users = userRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.ofSize(PAGE_SIZE));
+            for (User user : users) {
+                Boolean changed = transactionTemplate.execute(status -> reconcile(user));
+                if (Boolean.TRUE.equals(changed)) {
+                    corrected++;
+                }
+                lastId = user.getId();
+            }
+            if (users.size() < PAGE_SIZE) {
+                break;
+            }
+        }
+        if (corrected > 0) {
+            logger.warn("Archive statistics reconciliation corrected {} users", corrected);
+        }
+    }
+
+    /**
+     * Creates the statistics rows missing for users who existed before statistics were kept.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillMissingStats() {
+        int created = 0;
+        while (true) {
+            List<Long> userIds = archiveStatsRepository.findUserIdsWithoutStats(PageRequest.ofSize(PAGE_SIZE));
+            for (Long userId : userIds) {
+                transactionTemplate.executeWithoutResult(status -> lockStats(userId));
+            }
+            created += userIds.size();
+            if (userIds.size() < PAGE_SIZE) {
+                break;
+            }
+        }
+        if (created > 0) {
+            logger.info("Created archive statistics for {} existing users", created);
+        }
+    }
+
+    // Recomputes the whole summary and reports whether any part of it, not just the totals, had drifted.
+    private boolean reconcile(User user) {
+        ArchiveStats stats = lockStats(user.getId());
+        long[] previousHistogram = stats.getGcHistogram().clone();
+        Map<String, Long> previousTypeCounts = new TreeMap<>(stats.getSequenceTypeCounts());
+        long previousAnalyses = stats.getTotalAnalyses();
+        long previousBasePairs = stats.getTotalBasePairs();
+
+        stats.reset();
+        accumulate(stats, user);
+        return stats.getTotalAnalyses() != previousAnalyses
+                || stats.getTotalBasePairs() != previousBasePairs
+                || !Arrays.equals(stats.getGcHistogram(), previousHistogram)
+                || !stats.getSequenceTypeCounts().equals(previousTypeCounts);
+    }
+
+    private void accumulate(ArchiveStats stats, User user) {
+        try (Stream<Object[]> rows = savedAnalysisRepository.streamStatsByUser(user)) {
+            rows.forEach(row -> stats.apply((String) row[0], (Integer) row[1], (Double) row[2], 1));
+        }
+    }
+
+    // Locks the user's row, creating it from their saved analyses first if it does not exist yet. The row is created
+    // in its own short transaction before any locking read: a locking read of a missing row takes a gap lock under
+    // InnoDB's REPEATABLE READ, and two first saves holding that gap lock would then deadlock on their inserts.
+    // Concurrent creations are resolved by the database: all but the first insert are no-ops, and every caller
+    // then locks and updates the one row that was created.
+    private ArchiveStats lockStats(Long userId) {
+        if (!archiveStatsRepository.existsById(userId)) {
+            createTransaction.executeWithoutResult(status -> {
+                ArchiveStats initial = new ArchiveStats(userId);
+                accumulate(initial, userRepository.getReferenceById(userId));
+                archiveStatsRepository.insertIfAbsent(userId, initial.getTotalAnalyses(), initial.getTotalBasePairs(),
+                        new LongArrayConverter().convertToDatabaseColumn(initial.getGcHistogram()),
+                        new CountMapConverter().convertToDatabaseColumn(initial.getSequenceTypeCounts()),
+                        LocalDateTime.now());
+            });
+        }
+        return archiveStatsRepository.findByUserIdForUpdate(userId)
+                .orElseThrow(() -> new IllegalStateException("Statistics row for user " + userId + " not created"));
+    }
+}
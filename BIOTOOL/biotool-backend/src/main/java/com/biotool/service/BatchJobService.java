@@ -0,0 +1,607 @@
+package com.biotool.service;
+
+import com.biotool.entity.BatchJob;
+import com.biotool.entity.BatchJobResult;
+import com.biotool.model.BatchRecord;
+import com.biotool.model.BatchRecordResult;
+import com.biotool.model.ShardRequest;
+import com.biotool.model.ShardResult;
+import com.biotool.repository.BatchJobRepository;
+import com.biotool.repository.BatchJobResultRepository;
+import com.biotool.service.WorkerRegistry.Worker;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Runs large multi-record submissions as batch jobs spread over the registered workers.
+ *
+ * A submission is split into shards of whole FASTA records, bounded by total sequence length and record count.
+ * A single dispatcher thread hands queued shards to workers as slots free up, sending each one over HTTP (or
+ * running it in-process on the local worker). A shard whose attempt fails is queued again, preferring a different
+ * worker, and a shard running on a worker that stops sending heartbeats is reassigned without waiting for the
+ * request to time out; whichever attempt finishes first is kept. The job fails once a shard has used up its
+ * attempts.
+ *
+ * Each shard's results are stored in the database as soon as the shard completes, so any instance can serve the
+ * download until the results expire. Progress is written to the job's row after each shard, outside the job lock,
+ * and the instance running a job keeps renewing its lease; a queued or running job whose lease runs out, because
+ * its instance crashed or restarted, is marked failed.
+ */
+@Service
+public class BatchJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchJobService.class);
+
+    @Autowired
+    private BatchJobRepository batchJobRepository;
+
+    @Autowired
+    private BatchJobResultRepository batchJobResultRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private WorkerRegistry workerRegistry;
+
+    @Autowired
+    private ClusterWorkerService clusterWorkerService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${biotool.cluster.shard-max-bases:1000000}")
+    private int shardMaxBases;
+
+    @Value("${biotool.cluster.shard-max-records:500}")
+    private int shardMaxRecords;
+
+    @Value("${biotool.cluster.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${biotool.cluster.shard-timeout-ms:120000}")
+    private long shardTimeoutMs;
+
+    @Value("${biotool.cluster.result-ttl-minutes:60}")
+    private long resultTtlMinutes;
+
+    @Value("${biotool.cluster.result-grace-ms:600000}")
+    private long resultGraceMs;
+
+    @Value("${biotool.cluster.job-lease-ms:60000}")
+    private long jobLeaseMs;
+
+    @Value("${biotool.cluster.token:}")
+    private String token;
+
+    private final Map<Long, JobState> jobs = new ConcurrentHashMap<>();
+    private final LinkedBlockingDeque<ShardTask> queue = new LinkedBlockingDeque<>();
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final ExecutorService localExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "batch-local");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Thread dispatcher;
+    private long leasesRenewedAt;
+
+    @PostConstruct
+    void startDispatcher() {
+        dispatcher = new Thread(this::dispatchLoop, "batch-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    void stopDispatcher() {
+        dispatcher.interrupt();
+        localExecutor.shutdownNow();
+    }
+
+    /**
+     * Splits a multi-record FASTA submission into shards and queues them.
+     * Input without a header line is treated as a single record.
+     * @return The new job, with its totals filled in.
+     * @throws IllegalArgumentException if the submission contains no records.
+     */
+    public BatchJob submit(Long userId, String fasta) {
+        List<BatchRecord> records = splitRecords(fasta);
+        if (records.isEmpty()) {
+            throw new IllegalArgumentException("The submission contains no sequences.");
+        }
+        List<List<BatchRecord>> shards = shard(records);
+
+        BatchJob job = new BatchJob();
+        job.setUserId(userId);
+        job.setStatus(BatchJob.QUEUED);
+        job.setTotalRecords(records.size());
+        job.setTotalShards(shards.size());
+        job.setHeartbeatAt(LocalDateTime.now());
+        job = batchJobRepository.save(job);
+
+        JobState state = new JobState(job, shards.size());
+        jobs.put(job.getId(), state);
+        for (int i = 0; i < shards.size(); i++) {
+            state.tasks[i] = new ShardTask(state, new ShardRequest(job.getId(), i, shards.get(i)));
+            queue.add(state.tasks[i]);
+        }
+        logger.info("Batch job {} queued: {} records in {} shards", job.getId(), records.size(), shards.size());
+        return job;
+    }
+
+    public Optional<BatchJob> getJob(Long userId, Long jobId) {
+        return batchJobRepository.findByIdAndUserId(jobId, userId);
+    }
+
+    public List<BatchJob> listJobs(Long userId) {
+        return batchJobRepository.findByUserIdOrderByCreatedAtDesc(userId);
+    }
+
+    /**
+     * Tells whether every shard of a completed job still has its stored results, so a download can be refused
+     * before any of it is sent.
+     */
+    public boolean hasAllResults(BatchJob job) {
+        return batchJobResultRepository.countByJobId(job.getId()) == job.getTotalShards();
+    }
+
+    /**
+     * Writes the stored results of a completed job as NDJSON, one record per line, in input order.
+     * @throws IOException if some of the job's results are missing, for example because they expired.
+     */
+    @Transactional(readOnly = true)
+    public void writeResults(BatchJob job, OutputStream out) throws IOException {
+        int shards = 0;
+        try (Stream<BatchJobResult> rows = batchJobResultRepository.streamByJobId(job.getId())) {
+            Iterator<BatchJobResult> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                BatchJobResult row = iterator.next();
+                if (row.getShardIndex() != shards) {
+                    break;
+                }
+                try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(row.getRecords()))) {
+                    in.transferTo(out);
+                }
+                entityManager.detach(row);
+                shards++;
+            }
+        }
+        if (shards != job.getTotalShards()) {
+            throw new IOException("The results of shard " + shards + " of batch job " + job.getId() + " are missing");
+        }
+        out.flush();
+    }
+
+    /**
+     * Reassigns shards running on workers that have stopped sending heartbeats, and renews the leases
+     * of the jobs this instance is running.
+     */
+    @Scheduled(fixedDelayString = "${biotool.cluster.reaper-interval-ms:2000}")
+    public void reapWorkersAndRenewLeases() {
+        List<String> expired = workerRegistry.expire();
+        for (JobState state : jobs.values()) {
+            if (expired.isEmpty()) break;
+            boolean changed = false;
+            synchronized (state) {
+                if (state.finished) continue;
+                for (ShardTask task : state.tasks) {
+                    if (task.running && !task.done && !task.storing && expired.contains(task.workerId)) {
+                        changed |= retry(task, "worker " + task.workerId + " stopped sending heartbeats");
+                    }
+                }
+            }
+            if (changed) {
+                persist(state);
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        if (now - leasesRenewedAt >= jobLeaseMs / 3 && !jobs.isEmpty()) {
+            leasesRenewedAt = now;
+            List<Long> ids = new ArrayList<>(jobs.keySet());
+            try {
+                transactionTemplate.executeWithoutResult(status -> batchJobRepository.renewLeases(ids, LocalDateTime.now()));
+            } catch (RuntimeException e) {
+                logger.warn("Could not renew the leases of batch jobs {}: {}", ids, e.toString());
+            }
+        }
+    }
+
+    /**
+     * Fails the queued and running jobs whose lease has run out, which are the jobs an instance was running when it
+     * crashed or restarted, and deletes the stored results of jobs that finished longer ago than the result
+     * time-to-live plus a grace period, so a download that started just before its job expired can finish.
+     * Runs at startup and then periodically, so jobs left behind by another instance are closed too.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${biotool.cluster.job-check-interval-ms:60000}",
+            initialDelayString = "${biotool.cluster.job-check-interval-ms:60000}")
+    public void closeAbandonedJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        Integer failed = transactionTemplate.execute(status -> batchJobRepository.failAbandoned(
+                now.minus(Duration.ofMillis(jobLeaseMs)), now,
+                "The job was interrupted because the instance running it stopped."));
+        if (failed != null && failed > 0) {
+            logger.warn("Marked {} interrupted batch jobs as failed", failed);
+        }
+        Integer purged = transactionTemplate.execute(status ->
+                batchJobResultRepository.deleteForJobsFinishedBefore(
+                        now.minusMinutes(resultTtlMinutes).minus(Duration.ofMillis(resultGraceMs))));
+        if (purged != null && purged > 0) {
+            logger.info("Deleted {} expired batch job result shards", purged);
+        }
+    }
+
+    private void dispatchLoop() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                ShardTask task = queue.takeFirst();
+                if (task.isObsolete()) {
+                    continue;
+                }
+                Worker worker;
+                while ((worker = workerRegistry.acquire(task.avoidWorkerId)) == null) {
+                    workerRegistry.awaitCapacity(1000);
+                }
+                dispatch(task, worker);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void dispatch(ShardTask task, Worker worker) {
+        JobState state = task.job;
+        long attempt;
+        ShardRequest request;
+        boolean started = false;
+        synchronized (state) {
+            if (task.done || task.storing || state.finished) {
+                workerRegistry.cancel(worker);
+                return;
+            }
+            request = task.request;
+            attempt = ++task.attempt;
+            task.running = true;
+            task.workerId = worker.getId();
+            if (BatchJob.QUEUED.equals(state.job.getStatus())) {
+                state.job.setStatus(BatchJob.RUNNING);
+                started = true;
+            }
+        }
+        if (started) {
+            persist(state);
+        }
+
+        CompletableFuture<ShardResult> future;
+        if (worker.isLocal()) {
+            future = CompletableFuture.supplyAsync(() -> clusterWorkerService.runShard(request), localExecutor);
+        } else {
+            future = sendShard(worker, request);
+        }
+        future.whenComplete((result, error) -> complete(task, attempt, worker, result, error));
+    }
+
+    private CompletableFuture<ShardResult> sendShard(Worker worker, ShardRequest shard) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(shard);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(worker.getUrl() + "/api/cluster/shards"))
+                .timeout(Duration.ofMillis(shardTimeoutMs))
+                .header("Content-Type", "application/json")
+                .header(ClusterWorkerService.TOKEN_HEADER, token)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).thenApply(response -> {
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("worker " + worker.getId() + " answered " + response.statusCode());
+            }
+            try {
+                return objectMapper.readValue(response.body(), ShardResult.class);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void complete(ShardTask task, long attempt, Worker worker, ShardResult result, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause == null && (result == null || result.getResults() == null
+                || result.getResults().size() != task.recordCount)) {
+            cause = new IllegalStateException("worker " + worker.getId() + " returned an incomplete shard");
+        }
+        workerRegistry.release(worker, cause == null);
+        // A refused or dropped connection means the worker is gone; a timeout or error status only fails this attempt.
+        if (cause instanceof IOException && !(cause instanceof HttpTimeoutException)) {
+            workerRegistry.markUnreachable(worker);
+        }
+
+        JobState state = task.job;
+        synchronized (state) {
+            if (attempt == task.attempt) {
+                task.running = false;
+            }
+            if (task.done || task.storing || state.finished) {
+                return; // Another attempt already finished this shard, or the job is over
+            }
+            if (cause == null) {
+                task.storing = true; // Claims the shard, so an attempt finishing while it is stored is dropped
+            } else if (attempt == task.attempt) {
+                // Failures of attempts that were already superseded by a reassignment are ignored
+                logger.warn("Shard {} of batch job {} failed on worker {}: {}",
+                        task.index, state.job.getId(), worker.getId(), cause.toString());
+                task.avoidWorkerId = worker.getId();
+                retry(task, cause.toString());
+            } else {
+                return;
+            }
+        }
+        if (cause == null) {
+            try {
+                store(task, result.getResults());
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Could not store shard {} of batch job {}: {}", task.index, state.job.getId(), e.toString());
+                synchronized (state) {
+                    task.storing = false;
+                    if (!state.finished) {
+                        retry(task, "storing its results failed: " + e);
+                    }
+                }
+                persist(state);
+                return;
+            }
+            synchronized (state) {
+                task.storing = false;
+                if (state.finished) {
+                    return; // The job failed while the shard was stored; the row is deleted with its other results
+                }
+                task.done = true;
+                BatchJob job = state.job;
+                job.setCompletedShards(job.getCompletedShards() + 1);
+                job.setCompletedRecords(job.getCompletedRecords() + result.getResults().size());
+                task.request = null;
+                if (job.getCompletedShards() == job.getTotalShards()) {
+                    finish(state, BatchJob.COMPLETED, null);
+                    logger.info("Batch job {} completed: {} records, {} retried shards",
+                            job.getId(), job.getCompletedRecords(), job.getRetriedShards());
+                }
+            }
+        }
+        persist(state);
+    }
+
+    // Writes a shard's results to its row as gzip-compressed NDJSON, replacing any row left by an earlier attempt.
+    private void store(ShardTask task, List<BatchRecordResult> results) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(gzip);
+            generator.setRootValueSeparator(null);
+            for (BatchRecordResult result : results) {
+                objectMapper.writeValue(generator, result);
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+        }
+        Long jobId = task.job.job.getId();
+        BatchJobResult row = new BatchJobResult(jobId, task.index, results.size(), bytes.toByteArray());
+        transactionTemplate.executeWithoutResult(status -> {
+            batchJobResultRepository.deleteShard(jobId, task.index);
+            batchJobResultRepository.save(row);
+        });
+    }
+
+    // Queues a shard again, at the front, or fails the job if the shard has no attempts left. Caller holds the job lock.
+    private boolean retry(ShardTask task, String reason) {
+        JobState state = task.job;
+        if (++task.failures >= maxAttempts) {
+            finish(state, BatchJob.FAILED, "Shard " + task.index + " failed after "
+                    + task.failures + " attempts: " + reason);
+            logger.warn("Batch job {} failed: {}", state.job.getId(), state.job.getErrorMessage());
+            return true;
+        }
+        task.running = false;
+        task.attempt++; // Supersedes the attempt in flight, so its late failure is not counted twice
+        state.job.setRetriedShards(state.job.getRetriedShards() + 1);
+        queue.addFirst(task);
+        return true;
+    }
+
+    // Caller holds the job lock.
+    private void finish(JobState state, String status, String errorMessage) {
+        LocalDateTime now = LocalDateTime.now();
+        state.job.setStatus(status);
+        state.job.setErrorMessage(errorMessage);
+        state.job.setFinishedAt(now);
+        if (BatchJob.COMPLETED.equals(status)) {
+            state.job.setResultsExpireAt(now.plusMinutes(resultTtlMinutes));
+        }
+        state.finished = true;
+        jobs.remove(state.job.getId());
+    }
+
+    // Writes the job's progress to its row. Called without the job lock so that a slow database holds up neither
+    // the dispatcher nor other shards; the write lock keeps an older copy from overwriting a newer one.
+    // The write only applies while the row is queued or running; if the job was failed as abandoned, it is stopped.
+    private void persist(JobState state) {
+        synchronized (state.writeLock) {
+            BatchJob copy;
+            synchronized (state) {
+                copy = copyOf(state.job);
+                if (!state.finished) {
+                    copy.setHeartbeatAt(LocalDateTime.now());
+                }
+            }
+            Integer updated;
+            try {
+                updated = transactionTemplate.execute(status -> batchJobRepository.updateProgress(copy));
+            } catch (RuntimeException e) {
+                logger.warn("Could not save the progress of batch job {}: {}", copy.getId(), e.toString());
+                return;
+            }
+            if (updated != null && updated == 0) {
+                // Another instance failed the job while this one was stalled; stop working on it.
+                synchronized (state) {
+                    state.finished = true;
+                    jobs.remove(copy.getId());
+                }
+                logger.warn("Batch job {} was closed elsewhere while running here; it is abandoned", copy.getId());
+            }
+        }
+    }
+
+    private static BatchJob copyOf(BatchJob job) {
+        BatchJob copy = new BatchJob();
+        copy.setId(job.getId());
+        copy.setUserId(job.getUserId());
+        copy.setStatus(job.getStatus());
+        copy.setTotalRecords(job.getTotalRecords());
+        copy.setCompletedRecords(job.getCompletedRecords());
+        copy.setTotalShards(job.getTotalShards());
+        copy.setCompletedShards(job.getCompletedShards());
+        copy.setRetriedShards(job.getRetriedShards());
+        copy.setErrorMessage(job.getErrorMessage());
+        copy.setCreatedAt(job.getCreatedAt());
+        copy.setFinishedAt(job.getFinishedAt());
+        copy.setHeartbeatAt(job.getHeartbeatAt());
+        copy.setResultsExpireAt(job.getResultsExpireAt());
+        return copy;
+    }
+
+    // Splits FASTA text into records, keeping each body as raw text for the worker to normalize.
+    private static List<BatchRecord> splitRecords(String fasta) {
+        List<BatchRecord> records = new ArrayList<>();
+        String id = null;
+        int bodyStart = 0;
+        int lineStart = 0;
+        int length = fasta.length();
+        while (lineStart <= length) {
+            int lineEnd = fasta.indexOf('\n', lineStart);
+            if (lineEnd < 0) lineEnd = length;
+            boolean header = lineStart < length && fasta.charAt(lineStart) == '>';
+            if (header || lineEnd == length) {
+                int bodyEnd = header ? lineStart : length;
+                String body = fasta.substring(bodyStart, bodyEnd);
+                if (id != null || !body.isBlank()) {
+                    records.add(new BatchRecord(id != null ? id : "record-" + (records.size() + 1), body));
+                }
+                if (header) {
+                    String title = fasta.substring(lineStart + 1, lineEnd).trim();
+                    int space = 0;
+                    while (space < title.length() && !Character.isWhitespace(title.charAt(space))) space++;
+                    id = title.substring(0, space);
+                    bodyStart = Math.min(lineEnd + 1, length);
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return records;
+    }
+
+    private List<List<BatchRecord>> shard(List<BatchRecord> records) {
+        List<List<BatchRecord>> shards = new ArrayList<>();
+        List<BatchRecord> current = new ArrayList<>();
+        long bases = 0;
+        for (BatchRecord record : records) {
+            if (!current.isEmpty() && (current.size() >= shardMaxRecords
+                    || bases + record.getSequence().length() > shardMaxBases)) {
+                shards.add(current);
+                current = new ArrayList<>();
+                bases = 0;
+            }
+            current.add(record);
+            bases += record.getSequence().length();
+        }
+        shards.add(current);
+        return shards;
+    }
+
+    // The job and the tasks are guarded by the job's lock; writes of the job's row are serialized by the write lock.
+    private static final class JobState {
+        final BatchJob job;
+        final ShardTask[] tasks;
+        final Object writeLock = new Object();
+        boolean finished;
+
+        JobState(BatchJob job, int shards) {
+            this.job = job;
+            this.tasks = new ShardTask[shards];
+        }
+    }
+
+    // Mutable fields are guarded by the job's lock. The attempt number identifies the current attempt;
+    // failures counts the attempts that failed or were abandoned. storing is set while a finished attempt's
+    // results are written to the database.
+    private static final class ShardTask {
+        final JobState job;
+        final int index;
+        final int recordCount;
+        ShardRequest request;
+        long attempt;
+        int failures;
+        boolean running;
+        boolean done;
+        boolean storing;
+        String workerId;
+        volatile String avoidWorkerId;
+
+        ShardTask(JobState job, ShardRequest request) {
+            this.job = job;
+            this.index = request.getShardIndex();
+            this.recordCount = request.getRecords().size();
+            this.request = request;
+        }
+
+        boolean isObsolete() {
+            synchronized (job) {
+                return done || storing || job.finished;
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.biotool.service;
+
+import com.biotool.model.BatchRecord;
+import com.biotool.model.BatchRecordResult;
+import com.biotool.model.ShardRequest;
+import com.biotool.model.ShardResult;
+import com.biotool.model.WorkerHeartbeat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The worker side of batch scale-out: runs the shards the coordinator sends, and, on instances started with
+ * biotool.cluster.role=worker, announces this instance to the coordinator with a heartbeat every few seconds.
+ */
+@Service
+public class ClusterWorkerService {
+
+    public static final String TOKEN_HEADER = "X-Cluster-Token";
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterWorkerService.class);
+
+    @Autowired
+    private SequenceService sequenceService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${biotool.cluster.role:standalone}")
+    private String role;
+
+    @Value("${biotool.cluster.coordinator-url:}")
+    private String coordinatorUrl;
+
+    // The URL the coordinator should use to reach this instance; defaults to http://localhost:<port>
+    @Value("${biotool.cluster.advertise-url:}")
+    private String advertiseUrl;
+
+    @Value("${biotool.cluster.token:}")
+    private String token;
+
+    @Value("${biotool.cluster.worker-slots:0}")
+    private int workerSlots;
+
+    private final String workerId = UUID.randomUUID().toString();
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private boolean coordinatorReachable = true;
+
+    /**
+     * Analyzes every record of a shard, in order.
+     */
+    public ShardResult runShard(ShardRequest request) {
+        List<BatchRecordResult> results = new ArrayList<>(request.getRecords().size());
+        for (BatchRecord record : request.getRecords()) {
+            results.add(new BatchRecordResult(record.getId(), sequenceService.analyze(record.getSequence())));
+        }
+        return new ShardResult(request.getJobId(), request.getShardIndex(), workerId, results);
+    }
+
+    public String getWorkerId() {
+        return workerId;
+    }
+
+    /**
+     * Registers this instance with the coordinator, or refreshes its registration. Does nothing unless
+     * this instance is a worker.
+     */
+    @Scheduled(fixedDelayString = "${biotool.cluster.heartbeat-interval-ms:3000}")
+    public void sendHeartbeat() {
+        if (!"worker".equalsIgnoreCase(role) || coordinatorUrl.isEmpty()) {
+            return;
+        }
+        String url = advertiseUrl.isEmpty()
+                ? "http://localhost:" + environment.getProperty("local.server.port", environment.getProperty("server.port", "8080"))
+                : advertiseUrl;
+        int slots = workerSlots > 0 ? workerSlots : Runtime.getRuntime().availableProcessors();
+
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(coordinatorUrl + "/api/cluster/heartbeat"))
+                    .timeout(Duration.ofSeconds(5))
+                    .header("Content-Type", "application/json")
+                    .header(TOKEN_HEADER, token)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(
+                            objectMapper.writeValueAsBytes(new WorkerHeartbeat(workerId, url, slots))))
+                    .build();
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("status " + response.statusCode());
+            }
+            if (!coordinatorReachable) {
+                logger.info("Reconnected to coordinator at {}", coordinatorUrl);
+            }
+            coordinatorReachable = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Log only the first failure of a run, so a coordinator outage does not flood the log
+            if (coordinatorReachable) {
+                logger.warn("Heartbeat to coordinator at {} failed: {}", coordinatorUrl, e.toString());
+            }
+            coordinatorReachable = false;
+        }
+    }
+}
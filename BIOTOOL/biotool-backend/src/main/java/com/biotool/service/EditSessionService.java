@@ -0,0 +1,369 @@
+package com.biotool.service;
+
+import com.biotool.model.EditRequest;
+import com.biotool.model.EditSessionResult;
+import com.biotool.model.OrfLocation;
+import com.biotool.service.SequenceNormalizer.NormalizedSequence;
+import com.biotool.service.SequenceRope.Codon;
+import com.biotool.service.SequenceRope.Summary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Holds sequences server-side so users can edit them in place and get updated statistics back
+ * without resubmitting and re-analyzing the whole sequence.
+ *
+ * Each session keeps its sequence in a {@link SequenceRope}. An edit only touches the segments it changes,
+ * and the ORFs it can affect are found by looking at the edited region and back to the previous in-frame stop
+ * codon, so the work per edit is proportional to the edit rather than to the sequence length.
+ * Input goes through {@link SequenceNormalizer} like a full analysis, so FASTA text and IUPAC ambiguity codes
+ * are accepted, and a codon containing an ambiguous base ends a reading frame just as it does there.
+ * Sessions expire after a period of inactivity, and the least recently used ones are evicted when the total
+ * number of bases held would exceed the configured cap.
+ */
+@Service
+public class EditSessionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EditSessionService.class);
+
+    @Value("${biotool.edit.session-ttl-minutes:30}")
+    private long sessionTtlMinutes;
+
+    @Value("${biotool.edit.max-total-bases:100000000}")
+    private long maxTotalBases;
+
+    // Access-ordered, so iteration starts from the least recently used session.
+    // Both are guarded by the map's lock, as is each session's reserved count. totalBases is always the sum of
+    // the reserved counts of the sessions in the map, so evicting one never has to read a rope it does not lock.
+    private final LinkedHashMap<String, EditSession> sessions = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBases;
+
+    /**
+     * Opens a new edit session for the user.
+     * @param owner The username of the session owner.
+     * @param sequence The DNA sequence to load, normalized as for a full analysis.
+     * @return The initial state of the session.
+     * @throws IllegalArgumentException if the sequence is empty, not DNA, or larger than the memory cap.
+     */
+    public EditSessionResult open(String owner, String sequence) {
+        byte[] codes = encode(sequence);
+        if (codes.length == 0) {
+            throw new IllegalArgumentException("Sequence must not be empty.");
+        }
+
+        EditSession session = new EditSession(UUID.randomUUID().toString(), owner, new SequenceRope(codes));
+        synchronized (sessions) {
+            reserve(codes.length, null);
+            session.reserved = codes.length;
+            sessions.put(session.id, session);
+        }
+
+        synchronized (session) {
+            EditSessionResult result = describe(session);
+            result.setRemovedOrfs(new ArrayList<>());
+            result.setAddedOrfs(new ArrayList<>());
+            return result;
+        }
+    }
+
+    /**
+     * Looks up one of the user's sessions and marks it as recently used.
+     */
+    public Optional<EditSessionResult> get(String owner, String sessionId) {
+        return find(owner, sessionId).map(session -> {
+            synchronized (session) {
+                return describe(session);
+            }
+        });
+    }
+
+    /**
+     * Reads part of one of the user's sessions, such as the bases of an ORF an edit reported.
+     * @return The bases in [from, to), or empty if there is no such session.
+     * @throws IllegalArgumentException if the range is outside the sequence.
+     */
+    public Optional<String> getBases(String owner, String sessionId, int from, int to) {
+        return find(owner, sessionId).map(session -> {
+            synchronized (session) {
+                if (from < 0 || to < from || to > session.rope.length()) {
+                    throw new IllegalArgumentException("Range is outside the sequence.");
+                }
+                return session.rope.substring(from, to);
+            }
+        });
+    }
+
+    /**
+     * Applies an edit to one of the user's sessions.
+     *
+     * Only the ORFs whose sequence or start changed are listed. Every other ORF is unchanged: one that starts at
+     * or after position + deleteLength moves by the edit's change in length (inserted minus deleted bases),
+     * and one that starts before the edit keeps its coordinates.
+     * @return The updated state, including the ORFs the edit removed and added, or empty if there is no such session.
+     * @throws IllegalArgumentException if the edit is out of range or inserts non-DNA characters.
+     */
+    public Optional<EditSessionResult> edit(String owner, String sessionId, EditRequest request) {
+        Optional<EditSession> found = find(owner, sessionId);
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        EditSession session = found.get();
+        byte[] insert = encode(request.getInsert());
+
+        synchronized (session) {
+            SequenceRope rope = session.rope;
+            int position = request.getPosition();
+            int deleteLength = request.getDeleteLength();
+            if (position < 0 || deleteLength < 0 || position + deleteLength > rope.length()) {
+                throw new IllegalArgumentException("Edit is outside the sequence.");
+            }
+
+            int growth = insert.length - deleteLength;
+            synchronized (sessions) {
+                // The session may have been closed or evicted since it was looked up, taking its reservation along.
+                if (sessions.get(session.id) != session) {
+                    return Optional.empty();
+                }
+                if (growth > 0) {
+                    reserve(growth, session);
+                } else {
+                    totalBases += growth;
+                }
+                session.reserved += growth;
+            }
+
+            List<OrfLocation> removed = affectedOrfs(rope, position, position + deleteLength);
+            String deleted = growth == 0 ? rope.substring(position, position + deleteLength) : null;
+            rope.delete(position, deleteLength);
+            rope.insert(position, insert);
+            List<OrfLocation> added = affectedOrfs(rope, position, position + insert.length);
+
+            // An edit that leaves an ORF exactly as it was (e.g. a no-op substitution) is not reported. Only a
+            // substitution keeps the coordinates of an ORF it touches, so only then can an ORF be in both lists,
+            // and it is unchanged if the substituted bases it covers are the same.
+            if (growth == 0) {
+                String inserted = rope.substring(position, position + insert.length);
+                // changedBefore[i] is the number of substituted bases that differ among the first i
+                int[] changedBefore = new int[deleteLength + 1];
+                for (int i = 0; i < deleteLength; i++) {
+                    changedBefore[i + 1] = changedBefore[i] + (deleted.charAt(i) != inserted.charAt(i) ? 1 : 0);
+                }
+                Set<Long> before = new HashSet<>();
+                for (OrfLocation orf : removed) {
+                    for (int start : orf.getStarts()) before.add(key(start, orf.getEnd()));
+                }
+                Set<Long> unchanged = new HashSet<>();
+                for (OrfLocation orf : added) {
+                    int to = Math.min(position + deleteLength, orf.getEnd()) - position;
+                    for (int start : orf.getStarts()) {
+                        int from = Math.max(position, start) - position;
+                        boolean same = to <= from || changedBefore[to] == changedBefore[from];
+                        if (same && before.contains(key(start, orf.getEnd()))) unchanged.add(key(start, orf.getEnd()));
+                    }
+                }
+                removed = without(removed, unchanged);
+                added = without(added, unchanged);
+            }
+
+            EditSessionResult result = describe(session);
+            result.setRemovedOrfs(removed);
+            result.setAddedOrfs(added);
+            return Optional.of(result);
+        }
+    }
+
+    /**
+     * Closes one of the user's sessions and releases its memory.
+     * @return Whether a session was closed.
+     */
+    public boolean close(String owner, String sessionId) {
+        synchronized (sessions) {
+            EditSession session = sessions.get(sessionId);
+            if (session == null || !session.owner.equals(owner)) {
+                return false;
+            }
+            remove(session);
+            return true;
+        }
+    }
+
+    /**
+     * Evicts sessions that have been idle for longer than the configured time-to-live.
+     */
+    @Scheduled(fixedDelayString = "${biotool.edit.eviction-interval-ms:60000}")
+    public void evictIdleSessions() {
+        long cutoff = System.currentTimeMillis() - sessionTtlMinutes * 60_000;
+        int evicted = 0;
+        synchronized (sessions) {
+            Iterator<EditSession> iterator = sessions.values().iterator();
+            while (iterator.hasNext()) {
+                EditSession session = iterator.next();
+                if (session.lastAccess < cutoff) {
+                    iterator.remove();
+                    totalBases -= session.reserved;
+                    evicted++;
+                }
+            }
+        }
+        if (evicted > 0) {
+            logger.info("Evicted {} idle edit sessions", evicted);
+        }
+    }
+
+    /**
+     * Finds the ORFs whose reading could change when [from, to) is edited: in each frame, those starting after the
+     * last frame-ending codon that ends before the edit and before the end of the edited region. Each one runs from
+     * its ATG to the first in-frame stop codon after it, exactly as {@link SequenceService} reports ORFs. ORFs
+     * ending at the same stop codon are grouped, and no bases are copied, so the cost depends on the number of
+     * ATGs and stop codons found rather than on the length of the ORFs.
+     */
+    private static List<OrfLocation> affectedOrfs(SequenceRope rope, int from, int to) {
+        List<OrfLocation> orfs = new ArrayList<>();
+        for (int frame = 0; frame < 3; frame++) {
+            int lastEnd = rope.previous(Codon.END, frame, from - 2);
+            int start = rope.next(Codon.START, frame, lastEnd + 1);
+            while (start != -1 && start < to) {
+                int end = rope.next(Codon.END, frame, start + 3);
+                if (end == -1) {
+                    break; // Nothing ends the frame downstream, so no later ATG in the frame has an ORF either
+                }
+                if (rope.next(Codon.STOP, frame, end) != end) {
+                    // An ambiguous codon ends the frame, so no ATG before it has an ORF
+                    start = rope.next(Codon.START, frame, end + 3);
+                    continue;
+                }
+                List<Integer> starts = new ArrayList<>();
+                while (start != -1 && start < end && start < to) {
+                    starts.add(start);
+                    start = rope.next(Codon.START, frame, start + 3);
+                }
+                orfs.add(new OrfLocation(starts.stream().mapToInt(Integer::intValue).toArray(), end + 3));
+            }
+        }
+        orfs.sort((a, b) -> Integer.compare(a.getStarts()[0], b.getStarts()[0]));
+        return orfs;
+    }
+
+    private static long key(int start, int end) {
+        return (long) start << 32 | end;
+    }
+
+    // The groups with the given (start, end) pairs taken out, dropping groups left empty.
+    private static List<OrfLocation> without(List<OrfLocation> orfs, Set<Long> keys) {
+        if (keys.isEmpty()) {
+            return orfs;
+        }
+        List<OrfLocation> remaining = new ArrayList<>(orfs.size());
+        for (OrfLocation orf : orfs) {
+            int[] starts = Arrays.stream(orf.getStarts()).filter(start -> !keys.contains(key(start, orf.getEnd()))).toArray();
+            if (starts.length > 0) {
+                remaining.add(new OrfLocation(starts, orf.getEnd()));
+            }
+        }
+        return remaining;
+    }
+
+    private static EditSessionResult describe(EditSession session) {
+        Summary summary = session.rope.summary();
+        int a = summary.baseCount(SequenceRope.A);
+        int c = summary.baseCount(SequenceRope.C);
+        int g = summary.baseCount(SequenceRope.G);
+        int t = summary.baseCount(SequenceRope.T);
+        int n = summary.length - a - c - g - t;
+
+        // Same rules as a full analysis: ambiguity codes are pooled under 'N', and GC content counts S (G/C)
+        // and W (A/T) but leaves the other ambiguity codes out.
+        Map<Character, Integer> counts = new HashMap<>();
+        counts.put('A', a); counts.put('T', t); counts.put('G', g); counts.put('C', c);
+        if (n > 0) counts.put('N', n);
+        int strong = g + c + summary.baseCount(SequenceRope.encode('S'));
+        int weak = a + t + summary.baseCount(SequenceRope.encode('W'));
+
+        EditSessionResult result = new EditSessionResult();
+        result.setSessionId(session.id);
+        result.setLength(summary.length);
+        result.setGcContent(strong + weak == 0 ? 0 : (double) strong / (strong + weak) * 100);
+        result.setNucleotideCounts(counts);
+        result.setMeltingTemperature(SequenceService.meltingTemperature(a, t, g, c));
+        result.setOrfCount(summary.orfCount());
+        return result;
+    }
+
+    private Optional<EditSession> find(String owner, String sessionId) {
+        synchronized (sessions) {
+            EditSession session = sessions.get(sessionId);
+            if (session == null || !session.owner.equals(owner)) {
+                return Optional.empty();
+            }
+            session.lastAccess = System.currentTimeMillis();
+            return Optional.of(session);
+        }
+    }
+
+    // Makes room for extra bases by evicting least recently used sessions, never the one being edited.
+    private void reserve(long bases, EditSession keep) {
+        if (bases > maxTotalBases) {
+            throw new IllegalArgumentException("Sequence is too large for an edit session.");
+        }
+        Iterator<EditSession> iterator = sessions.values().iterator();
+        while (totalBases + bases > maxTotalBases && iterator.hasNext()) {
+            EditSession oldest = iterator.next();
+            if (oldest != keep) {
+                iterator.remove();
+                totalBases -= oldest.reserved;
+            }
+        }
+        if (totalBases + bases > maxTotalBases) {
+            throw new IllegalArgumentException("Edit session memory limit reached.");
+        }
+        totalBases += bases;
+    }
+
+    private void remove(EditSession session) {
+        sessions.remove(session.id);
+        totalBases -= session.reserved;
+    }
+
+    private static byte[] encode(String input) {
+        if (input == null) return new byte[0];
+        NormalizedSequence normalized = SequenceNormalizer.normalize(input);
+        if (!normalized.isNucleotide()) {
+            throw new IllegalArgumentException("Edit sessions accept DNA bases (A, C, G, T) and IUPAC codes only.");
+        }
+        String sequence = normalized.getSequence();
+        byte[] codes = new byte[sequence.length()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = SequenceRope.encode(sequence.charAt(i));
+        }
+        return codes;
+    }
+
+    private static final class EditSession {
+        final String id;
+        final String owner;
+        final SequenceRope rope;
+        volatile long lastAccess = System.currentTimeMillis();
+        long reserved; // Bases counted against the cap for this session
+
+        EditSession(String id, String owner, SequenceRope rope) {
+            this.id = id;
+            this.owner = owner;
+            this.rope = rope;
+        }
+    }
+}
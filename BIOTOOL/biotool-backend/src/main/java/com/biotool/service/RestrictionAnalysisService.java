@@ -0,0 +1,404 @@
+package com.biotool.service;
+
+import com.biotool.model.DigestFragment;
+import com.biotool.model.RestrictionDigest;
+import com.biotool.model.RestrictionEnzyme;
+import com.biotool.model.RestrictionSite;
+import com.biotool.service.SequenceNormalizer.NormalizedSequence;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds where restriction enzymes cut a sequence and computes the fragments of a virtual digest.
+ *
+ * The enzyme catalog is read from restriction-enzymes.txt once at startup, and every recognition site, together
+ * with its reverse complement for sites that are not palindromic, is expanded from IUPAC codes into plain
+ * A/C/G/T patterns and compiled into a single Aho-Corasick automaton. The automaton is stored as a complete
+ * transition table, so scanning a sequence is one table lookup per base on both strands and for every enzyme at
+ * once; the cost depends on the sequence length and the number of sites found, not on the number of enzymes.
+ */
+@Service
+public class RestrictionAnalysisService {
+
+    private static final String CATALOG = "restriction-enzymes.txt";
+
+    // Sites are expanded into at most this many plain patterns per strand; BstXI and SfiI need a few thousand.
+    private static final int MAX_EXPANSIONS = 1 << 16;
+
+    private static final byte[] CODE = new byte[128];
+    // The bases each IUPAC code stands for, as a bit mask over A=1, C=2, G=4, T=8.
+    private static final byte[] IUPAC = new byte[128];
+    private static final char[] COMPLEMENT = new char[128];
+    static {
+        Arrays.fill(CODE, (byte) -1);
+        CODE['A'] = 0; CODE['C'] = 1; CODE['G'] = 2; CODE['T'] = 3;
+        String codes = "ACGTRYSWKMBDHVN";
+        byte[] masks = {1, 2, 4, 8, 5, 10, 6, 9, 12, 3, 14, 13, 11, 7, 15};
+        String complements = "TGCAYRSWMKVHDBN";
+        for (int i = 0; i < codes.length(); i++) {
+            IUPAC[codes.charAt(i)] = masks[i];
+            COMPLEMENT[codes.charAt(i)] = complements.charAt(i);
+        }
+    }
+
+    private final List<RestrictionEnzyme> enzymes;
+    private final Map<String, Integer> enzymeIndex = new HashMap<>();
+    private final int[] siteLength;
+    private final boolean[] bothStrands;
+    private final int maxSiteLength;
+
+    // The automaton: next state for each state and base, the first match entry of each state (or -1), and the
+    // nearest state along the failure links that has match entries (or -1).
+    private final int[] transitions;
+    private final int[] firstEntry;
+    private final int[] outputLink;
+    // Match entries: enzyme index * 2 + 1 if the pattern is the reverse complement of the site, linked per state.
+    private final int[] entryValue;
+    private final int[] entryNext;
+
+    public RestrictionAnalysisService() {
+        this.enzymes = Collections.unmodifiableList(loadCatalog());
+        this.siteLength = new int[enzymes.size()];
+        this.bothStrands = new boolean[enzymes.size()];
+
+        AutomatonBuilder builder = new AutomatonBuilder();
+        int longest = 0;
+        for (int id = 0; id < enzymes.size(); id++) {
+            RestrictionEnzyme enzyme = enzymes.get(id);
+            if (enzymeIndex.put(enzyme.getName().toLowerCase(Locale.ROOT), id) != null) {
+                throw new IllegalStateException("Duplicate enzyme in catalog: " + enzyme.getName());
+            }
+            String site = enzyme.getRecognitionSequence();
+            String reverse = reverseComplement(site);
+            siteLength[id] = site.length();
+            bothStrands[id] = !reverse.equals(site);
+            longest = Math.max(longest, site.length());
+
+            for (String pattern : expand(enzyme.getName(), site)) builder.add(pattern, id * 2);
+            if (bothStrands[id]) {
+                for (String pattern : expand(enzyme.getName(), reverse)) builder.add(pattern, id * 2 + 1);
+            }
+        }
+        this.maxSiteLength = longest;
+
+        builder.link();
+        this.transitions = Arrays.copyOf(builder.transitions, builder.states * 4);
+        this.firstEntry = Arrays.copyOf(builder.firstEntry, builder.states);
+        this.outputLink = builder.outputLink;
+        this.entryValue = Arrays.copyOf(builder.entryValue, builder.entries);
+        this.entryNext = Arrays.copyOf(builder.entryNext, builder.entries);
+    }
+
+    /**
+     * The enzyme catalog, in alphabetical order.
+     */
+    public List<RestrictionEnzyme> getEnzymes() {
+        return enzymes;
+    }
+
+    /**
+     * Finds every cut site of the chosen enzymes in a sequence and digests it with all of them together.
+     * @param input The raw input; FASTA headers, whitespace and lower case are allowed, as for analysis.
+     * @param enzymeNames The enzymes to use, case-insensitively; all catalog enzymes when null or empty.
+     * @param circular Whether the sequence is circular, such as a plasmid, rather than linear.
+     * @return The cut sites and fragments.
+     * @throws IllegalArgumentException If the input is not a nucleotide sequence or an enzyme is unknown.
+     */
+    public RestrictionDigest digest(String input, Collection<String> enzymeNames, boolean circular) {
+        NormalizedSequence normalized = SequenceNormalizer.normalize(input);
+        if (!normalized.isNucleotide() || normalized.getSequence().isEmpty()) {
+            throw new IllegalArgumentException("Restriction analysis needs a DNA sequence");
+        }
+        boolean[] selected = select(enzymeNames);
+        String sequence = normalized.getSequence();
+        int n = sequence.length();
+
+        List<RestrictionSite> sites = scan(sequence, selected, circular);
+        sites.sort(Comparator.comparingInt(RestrictionSite::getTopCut)
+                .thenComparing(RestrictionSite::getEnzyme, String.CASE_INSENSITIVE_ORDER));
+
+        Map<String, Integer> cutCounts = new LinkedHashMap<>();
+        for (int id = 0; id < enzymes.size(); id++) {
+            if (selected[id]) cutCounts.put(enzymes.get(id).getName(), 0);
+        }
+        for (RestrictionSite site : sites) {
+            cutCounts.merge(site.getEnzyme(), 1, Integer::sum);
+        }
+
+        RestrictionDigest digest = new RestrictionDigest();
+        digest.setSequenceLength(n);
+        digest.setCircular(circular);
+        digest.setCutCounts(cutCounts);
+        digest.setSites(sites);
+        digest.setFragments(fragments(sites, n, circular));
+        return digest;
+    }
+
+    private boolean[] select(Collection<String> enzymeNames) {
+        boolean[] selected = new boolean[enzymes.size()];
+        if (enzymeNames == null || enzymeNames.isEmpty()) {
+            Arrays.fill(selected, true);
+            return selected;
+        }
+        for (String name : enzymeNames) {
+            Integer id = name == null ? null : enzymeIndex.get(name.trim().toLowerCase(Locale.ROOT));
+            if (id == null) {
+                throw new IllegalArgumentException("Unknown enzyme: " + name);
+            }
+            selected[id] = true;
+        }
+        return selected;
+    }
+
+    // One pass of the automaton over the sequence. A circular sequence is read on past its end for one site length
+    // less one base, so sites spanning the origin are found exactly once, at their start.
+    private List<RestrictionSite> scan(String sequence, boolean[] selected, boolean circular) {
+        int n = sequence.length();
+        int end = circular ? n + maxSiteLength - 1 : n;
+        List<RestrictionSite> sites = new ArrayList<>();
+        // Sites that are not palindromes can be read on both strands at once (e.g. a degenerate site matching its
+        // own reverse complement); those reads are the same cut whenever they give the same position.
+        Set<Long> seen = new HashSet<>();
+
+        int state = 0;
+        for (int i = 0; i < end; i++) {
+            char ch = sequence.charAt(i < n ? i : i % n);
+            int code = ch < 128 ? CODE[ch] : -1;
+            if (code < 0) {
+                state = 0; // Ambiguity codes in the sequence never count as a site
+                continue;
+            }
+            state = transitions[state * 4 + code];
+            for (int match = firstEntry[state] >= 0 ? state : outputLink[state]; match >= 0; match = outputLink[match]) {
+                for (int entry = firstEntry[match]; entry >= 0; entry = entryNext[entry]) {
+                    int id = entryValue[entry] >> 1;
+                    if (!selected[id]) continue;
+                    int length = siteLength[id];
+                    int start = i - length + 1;
+                    if (start >= n) continue; // Already found at the start of the sequence
+
+                    RestrictionEnzyme enzyme = enzymes.get(id);
+                    boolean reverse = (entryValue[entry] & 1) != 0;
+                    int top = reverse ? start + length - enzyme.getBottomCut() : start + enzyme.getTopCut();
+                    int bottom = reverse ? start + length - enzyme.getTopCut() : start + enzyme.getBottomCut();
+                    if (circular) {
+                        top = Math.floorMod(top, n);
+                        bottom = Math.floorMod(bottom, n);
+                    } else if (top <= 0 || top >= n || bottom <= 0 || bottom >= n) {
+                        continue; // The cut would fall off the end of a linear sequence
+                    }
+                    if (bothStrands[id] && !seen.add(((long) id << 32) | top)) continue;
+                    sites.add(new RestrictionSite(enzyme.getName(), start, reverse ? '-' : '+', top, bottom));
+                }
+            }
+        }
+        return sites;
+    }
+
+    // Fragments between consecutive distinct top-strand cuts.
+    private static List<DigestFragment> fragments(List<RestrictionSite> sites, int n, boolean circular) {
+        int[] cuts = sites.stream().mapToInt(RestrictionSite::getTopCut).distinct().toArray();
+        List<DigestFragment> fragments = new ArrayList<>(cuts.length + 1);
+        if (cuts.length == 0) {
+            fragments.add(new DigestFragment(0, circular ? 0 : n, n));
+            return fragments;
+        }
+        int previous = circular ? cuts[0] : 0;
+        for (int i = circular ? 1 : 0; i < cuts.length; i++) {
+            fragments.add(new DigestFragment(previous, cuts[i], cuts[i] - previous));
+            previous = cuts[i];
+        }
+        if (circular) {
+            fragments.add(new DigestFragment(previous, cuts[0], n - previous + cuts[0]));
+        } else {
+            fragments.add(new DigestFragment(previous, n, n - previous));
+        }
+        return fragments;
+    }
+
+    private static List<RestrictionEnzyme> loadCatalog() {
+        InputStream in = RestrictionAnalysisService.class.getClassLoader().getResourceAsStream(CATALOG);
+        if (in == null) {
+            throw new IllegalStateException("Restriction enzyme catalog " + CATALOG + " not found");
+        }
+        List<RestrictionEnzyme> catalog = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] fields = line.split("\\s+");
+                if (fields.length != 2) {
+                    throw new IllegalStateException("Malformed catalog line: " + line);
+                }
+                catalog.add(parseEnzyme(fields[0], fields[1]));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        catalog.sort(Comparator.comparing(RestrictionEnzyme::getName, String.CASE_INSENSITIVE_ORDER));
+        return catalog;
+    }
+
+    // Parses REBASE notation: G^AATTC cuts inside the site, GGTCTC(1/5) cuts 1 and 5 bases past its 3' end.
+    private static RestrictionEnzyme parseEnzyme(String name, String site) {
+        String recognition;
+        int top;
+        int bottom;
+        int paren = site.indexOf('(');
+        if (paren > 0 && site.endsWith(")")) {
+            recognition = site.substring(0, paren);
+            String[] offsets = site.substring(paren + 1, site.length() - 1).split("/");
+            if (offsets.length != 2) {
+                throw new IllegalStateException("Malformed cut offsets for " + name + ": " + site);
+            }
+            top = recognition.length() + Integer.parseInt(offsets[0]);
+            bottom = recognition.length() + Integer.parseInt(offsets[1]);
+        } else {
+            int caret = site.indexOf('^');
+            if (caret < 0 || site.indexOf('^', caret + 1) >= 0) {
+                throw new IllegalStateException("Site of " + name + " must have one '^' or (n/m) offsets: " + site);
+            }
+            recognition = site.substring(0, caret) + site.substring(caret + 1);
+            top = caret;
+            bottom = recognition.length() - caret;
+        }
+        for (int i = 0; i < recognition.length(); i++) {
+            char ch = recognition.charAt(i);
+            if (ch >= 128 || IUPAC[ch] == 0) {
+                throw new IllegalStateException("Site of " + name + " has an invalid base: " + site);
+            }
+        }
+        return new RestrictionEnzyme(name, site, recognition, top, bottom);
+    }
+
+    private static String reverseComplement(String site) {
+        char[] out = new char[site.length()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = COMPLEMENT[site.charAt(site.length() - 1 - i)];
+        }
+        return new String(out);
+    }
+
+    // Every plain A/C/G/T sequence an IUPAC site stands for.
+    private static List<String> expand(String name, String site) {
+        long count = 1;
+        for (int i = 0; i < site.length(); i++) {
+            count *= Integer.bitCount(IUPAC[site.charAt(i)]);
+        }
+        if (count > MAX_EXPANSIONS) {
+            throw new IllegalStateException("Site of " + name + " is too degenerate to index: " + site);
+        }
+        List<String> patterns = new ArrayList<>((int) count);
+        patterns.add("");
+        for (int i = 0; i < site.length(); i++) {
+            int mask = IUPAC[site.charAt(i)];
+            List<String> next = new ArrayList<>(patterns.size() * Integer.bitCount(mask));
+            for (String prefix : patterns) {
+                for (int base = 0; base < 4; base++) {
+                    if ((mask & (1 << base)) != 0) next.add(prefix + "ACGT".charAt(base));
+                }
+            }
+            patterns = next;
+        }
+        return patterns;
+    }
+
+    /**
+     * Builds the trie of all patterns, then turns it into a complete automaton in breadth-first order.
+     */
+    private static final class AutomatonBuilder {
+        int[] transitions = new int[1 << 12];
+        int[] firstEntry = new int[1 << 10];
+        int[] outputLink;
+        int states = 1;
+        int[] entryValue = new int[1 << 10];
+        int[] entryNext = new int[1 << 10];
+        int entries = 0;
+
+        AutomatonBuilder() {
+            Arrays.fill(transitions, -1);
+            Arrays.fill(firstEntry, -1);
+        }
+
+        void add(String pattern, int value) {
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                int slot = state * 4 + CODE[pattern.charAt(i)];
+                if (transitions[slot] < 0) {
+                    if (states == firstEntry.length) grow();
+                    transitions[slot] = states++;
+                }
+                state = transitions[slot];
+            }
+            if (entries == entryValue.length) {
+                entryValue = Arrays.copyOf(entryValue, entries * 2);
+                entryNext = Arrays.copyOf(entryNext, entries * 2);
+            }
+            entryValue[entries] = value;
+            entryNext[entries] = firstEntry[state];
+            firstEntry[state] = entries++;
+        }
+
+        private void grow() {
+            int capacity = firstEntry.length * 2;
+            transitions = Arrays.copyOf(transitions, capacity * 4);
+            Arrays.fill(transitions, firstEntry.length * 4, capacity * 4, -1);
+            firstEntry = Arrays.copyOf(firstEntry, capacity);
+            Arrays.fill(firstEntry, capacity / 2, capacity, -1);
+        }
+
+        // Fills in the missing transitions through the failure links, which are computed on the way.
+        void link() {
+            int[] failure = new int[states];
+            outputLink = new int[states];
+            outputLink[0] = -1;
+            int[] queue = new int[states];
+            int head = 0;
+            int tail = 0;
+            for (int base = 0; base < 4; base++) {
+                int child = transitions[base];
+                if (child < 0) {
+                    transitions[base] = 0;
+                } else {
+                    failure[child] = 0;
+                    outputLink[child] = -1;
+                    queue[tail++] = child;
+                }
+            }
+            while (head < tail) {
+                int state = queue[head++];
+                for (int base = 0; base < 4; base++) {
+                    int slot = state * 4 + base;
+                    int child = transitions[slot];
+                    int fallback = transitions[failure[state] * 4 + base];
+                    if (child < 0) {
+                        transitions[slot] = fallback;
+                    } else {
+                        failure[child] = fallback;
+                        outputLink[child] = firstEntry[fallback] >= 0 ? fallback : outputLink[fallback];
+                        queue[tail++] = child;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.biotool.service;
+
+import com.biotool.model.SequenceRegion;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns raw user input into a clean, upper-case nucleotide sequence in a single pass.
+ *
+ * Every input character is classified through a lookup table rather than a regular expression: FASTA header
+ * and comment lines ('>' or ';' at the start of a line), whitespace, digits and alignment gaps are dropped,
+ * lower case is folded, and soft-masked (lower-case) runs and IUPAC ambiguity-code runs are recorded as regions
+ * of the output. The result is written straight into one output buffer.
+ */
+public final class SequenceNormalizer {
+
+    private static final byte INVALID = 0;
+    private static final byte SKIP = 1;
+    private static final byte NEWLINE = 2;
+    private static final byte HEADER = 3;
+    private static final byte BASE = 4;
+    private static final byte AMBIGUOUS = 5;
+
+    private static final byte[] CLASS = new byte[128];
+    private static final char[] UPPER = new char[128];
+    static {
+        for (char ch = 0; ch < 128; ch++) {
+            UPPER[ch] = Character.toUpperCase(ch);
+        }
+        for (char ch : " \t\r\f\u000B0123456789-".toCharArray()) CLASS[ch] = SKIP;
+        CLASS['\n'] = NEWLINE;
+        CLASS['>'] = HEADER;
+        CLASS[';'] = HEADER;
+        for (char ch : "ACGT".toCharArray()) {
+            CLASS[ch] = BASE;
+            CLASS[Character.toLowerCase(ch)] = BASE;
+        }
+        // IUPAC ambiguity codes: R=A/G, Y=C/T, S=G/C, W=A/T, K=G/T, M=A/C, B/D/H/V=three bases, N=any
+        for (char ch : "RYSWKMBDHVN".toCharArray()) {
+            CLASS[ch] = AMBIGUOUS;
+            CLASS[Character.toLowerCase(ch)] = AMBIGUOUS;
+        }
+    }
+
+    private SequenceNormalizer() {}
+
+    /**
+     * Normalizes raw input such as pasted text or a FASTA file.
+     * @param input The raw input; may contain FASTA headers, line breaks, lower case and IUPAC codes.
+     * @return The normalized sequence with its masked and ambiguous regions.
+     */
+    public static NormalizedSequence normalize(String input) {
+        int length = input.length();
+        char[] out = new char[length];
+        int n = 0;
+        boolean lineStart = true;
+        boolean nucleotide = true;
+        int ambiguousCount = 0;
+        int maskStart = -1;
+        int ambiguousStart = -1;
+        List<SequenceRegion> masked = new ArrayList<>();
+        List<SequenceRegion> ambiguous = new ArrayList<>();
+
+        for (int i = 0; i < length; i++) {
+            char ch = input.charAt(i);
+            byte type = ch < 128 ? CLASS[ch] : INVALID;
+            switch (type) {
+                case SKIP:
+                    continue;
+                case NEWLINE:
+                    lineStart = true;
+                    continue;
+                case HEADER:
+                    if (lineStart) {
+                        int end = input.indexOf('\n', i);
+                        i = end < 0 ? length : end - 1;
+                        continue;
+                    }
+                    nucleotide = false;
+                    break;
+                case BASE:
+                case AMBIGUOUS:
+                    boolean lower = ch >= 'a';
+                    if (lower && maskStart < 0) {
+                        maskStart = n;
+                    } else if (!lower && maskStart >= 0) {
+                        masked.add(new SequenceRegion(maskStart, n));
+                        maskStart = -1;
+                    }
+                    if (type == AMBIGUOUS) {
+                        ambiguousCount++;
+                        if (ambiguousStart < 0) ambiguousStart = n;
+                    } else if (ambiguousStart >= 0) {
+                        ambiguous.add(new SequenceRegion(ambiguousStart, n));
+                        ambiguousStart = -1;
+                    }
+                    break;
+                default:
+                    nucleotide = false;
+                    break;
+            }
+            lineStart = false;
+            out[n++] = ch < 128 ? UPPER[ch] : Character.toUpperCase(ch);
+        }
+        if (maskStart >= 0) masked.add(new SequenceRegion(maskStart, n));
+        if (ambiguousStart >= 0) ambiguous.add(new SequenceRegion(ambiguousStart, n));
+
+        return new NormalizedSequence(new String(out, 0, n), nucleotide, ambiguousCount, masked, ambiguous);
+    }
+
+    /**
+     * The output of {@link #normalize(String)}.
+     */
+    public static final class NormalizedSequence {
+        private final String sequence;
+        private final boolean nucleotide;
+        private final int ambiguousCount;
+        private final List<SequenceRegion> maskedRegions;
+        private final List<SequenceRegion> ambiguousRegions;
+
+        NormalizedSequence(String sequence, boolean nucleotide, int ambiguousCount,
+                           List<SequenceRegion> maskedRegions, List<SequenceRegion> ambiguousRegions) {
+            this.sequence = sequence;
+            this.nucleotide = nucleotide;
+            this.ambiguousCount = ambiguousCount;
+            this.maskedRegions = maskedRegions;
+            this.ambiguousRegions = ambiguousRegions;
+        }
+
+        /** The upper-case sequence with headers, whitespace, digits and gaps removed. */
+        public String getSequence() { return sequence; }
+        /** Whether every remaining character is a nucleotide or an IUPAC ambiguity code. */
+        public boolean isNucleotide() { return nucleotide; }
+        public int getAmbiguousCount() { return ambiguousCount; }
+        /** Runs that were lower case (soft-masked) in the input. */
+        public List<SequenceRegion> getMaskedRegions() { return maskedRegions; }
+        /** Runs of IUPAC ambiguity codes such as N. */
+        public List<SequenceRegion> getAmbiguousRegions() { return ambiguousRegions; }
+    }
+}
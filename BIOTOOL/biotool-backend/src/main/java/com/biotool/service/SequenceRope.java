@@ -0,0 +1,449 @@
+package com.biotool.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An editable nucleotide sequence stored as a balanced tree (a treap) of short segments.
+ *
+ * Every subtree caches a {@link Summary} of the bases it covers: base counts, the number of ATG, stop and
+ * ambiguous codons starting at each of the three reading-frame offsets, the ORFs that close inside it, and the
+ * first and last two bases so codons that straddle a segment boundary can be counted when two summaries are
+ * combined. Inserting or deleting bases only rebuilds the summaries along the edited path, and counting or
+ * locating codons walks a single root-to-leaf path, so both cost O(log n + segment size) regardless of the
+ * sequence length.
+ *
+ * IUPAC ambiguity codes are stored as entered. As in {@link SequenceService}, a codon containing one is neither
+ * a start nor a stop codon, and it ends any reading frame that runs into it without forming an ORF.
+ *
+ * This class is not thread-safe; callers must synchronize edits and queries on the same rope.
+ */
+public class SequenceRope {
+
+    // Bases are stored as small codes so codon checks are plain integer comparisons.
+    // Every code from OTHER (N) upwards is an IUPAC ambiguity code.
+    public static final byte A = 0, C = 1, G = 2, T = 3, OTHER = 4;
+
+    /**
+     * The kinds of codon the rope can count and locate. END is any codon that ends a reading frame:
+     * a stop codon or a codon containing an ambiguous base.
+     */
+    public enum Codon { START, STOP, END }
+
+    // Segments are cut to this many bases when a sequence is loaded or inserted.
+    private static final int SEGMENT_SIZE = 256;
+
+    private static final char[] BASE_CHARS = "ACGTNRYSWKMBDHV".toCharArray();
+    private static final Summary[] SINGLE_BASE = new Summary[BASE_CHARS.length];
+    static {
+        for (byte code = 0; code < BASE_CHARS.length; code++) {
+            SINGLE_BASE[code] = Summary.of(new byte[]{code}, 0, 1);
+        }
+    }
+
+    private Node root;
+
+    public SequenceRope(byte[] codes) {
+        root = build(codes, 0, codes.length);
+    }
+
+    /**
+     * Converts a nucleotide character to its base code. U is read as T, and anything that is not a base or an
+     * IUPAC ambiguity code maps to OTHER (N).
+     */
+    public static byte encode(char base) {
+        switch (base) {
+            case 'A': case 'a': return A;
+            case 'C': case 'c': return C;
+            case 'G': case 'g': return G;
+            case 'T': case 't': case 'U': case 'u': return T;
+            default:
+                for (byte code = OTHER + 1; code < BASE_CHARS.length; code++) {
+                    if (BASE_CHARS[code] == Character.toUpperCase(base)) return code;
+                }
+                return OTHER;
+        }
+    }
+
+    public int length() {
+        return root == null ? 0 : root.sum.length;
+    }
+
+    /**
+     * @return The summary of the whole sequence.
+     */
+    public Summary summary() {
+        return root == null ? Summary.EMPTY : root.sum;
+    }
+
+    /**
+     * Inserts bases before the given position.
+     */
+    public void insert(int position, byte[] codes) {
+        if (codes.length == 0) return;
+        Node[] parts = split(root, position);
+        root = merge(merge(parts[0], build(codes, 0, codes.length)), parts[1]);
+        compactIfFragmented();
+    }
+
+    /**
+     * Removes count bases starting at the given position.
+     */
+    public void delete(int position, int count) {
+        if (count == 0) return;
+        Node[] head = split(root, position);
+        Node[] tail = split(head[1], count);
+        root = merge(head[0], tail[1]);
+        compactIfFragmented();
+    }
+
+    /**
+     * Returns the bases in [from, to) as text.
+     */
+    public String substring(int from, int to) {
+        StringBuilder out = new StringBuilder(Math.max(0, to - from));
+        appendRange(root, 0, from, to, out);
+        return out.toString();
+    }
+
+    @Override
+    public String toString() {
+        return substring(0, length());
+    }
+
+    /**
+     * Counts codons of the given kind whose start position p satisfies p < limit and p % 3 == frame.
+     */
+    public int countBefore(Codon codon, int frame, int limit) {
+        if (limit <= 0) return 0;
+        return prefix(root, Math.min(limit + 2, length())).count(codon, frame);
+    }
+
+    /**
+     * Finds the first codon of the given kind starting at or after from, in the given frame (start % 3).
+     * @return Its start position, or -1 if there is none.
+     */
+    public int next(Codon codon, int frame, int from) {
+        return select(codon, frame, countBefore(codon, frame, from) + 1);
+    }
+
+    /**
+     * Finds the last codon of the given kind starting before limit, in the given frame (start % 3).
+     * @return Its start position, or -1 if there is none.
+     */
+    public int previous(Codon codon, int frame, int limit) {
+        int count = countBefore(codon, frame, limit);
+        return count == 0 ? -1 : select(codon, frame, count);
+    }
+
+    /**
+     * Finds the start of the k-th (1-based) codon of the given kind in the given frame, by walking down the tree
+     * and accumulating summaries from the left until the running count reaches k.
+     */
+    private int select(Codon codon, int frame, int k) {
+        Summary acc = Summary.EMPTY;
+        Node node = root;
+        while (node != null) {
+            Summary withLeft = Summary.combine(acc, sum(node.left));
+            if (withLeft.count(codon, frame) >= k) {
+                node = node.left;
+                continue;
+            }
+            Summary withOwn = Summary.combine(withLeft, node.own);
+            if (withOwn.count(codon, frame) >= k) {
+                Summary current = withLeft;
+                for (byte base : node.bases) {
+                    current = Summary.combine(current, SINGLE_BASE[base]);
+                    if (current.count(codon, frame) >= k) {
+                        return current.length - 3;
+                    }
+                }
+            }
+            acc = withOwn;
+            node = node.right;
+        }
+        return -1;
+    }
+
+    // Summary of the first end bases of the subtree, built from cached summaries plus at most one partial segment.
+    private static Summary prefix(Node node, int end) {
+        if (node == null || end <= 0) return Summary.EMPTY;
+        if (end >= node.sum.length) return node.sum;
+        int leftLength = sum(node.left).length;
+        if (end <= leftLength) return prefix(node.left, end);
+        int ownEnd = end - leftLength;
+        if (ownEnd <= node.bases.length) {
+            return Summary.combine(sum(node.left), Summary.of(node.bases, 0, ownEnd));
+        }
+        return Summary.combine(Summary.combine(sum(node.left), node.own),
+                prefix(node.right, ownEnd - node.bases.length));
+    }
+
+    private static void appendRange(Node node, int offset, int from, int to, StringBuilder out) {
+        if (node == null || to <= offset || from >= offset + node.sum.length) return;
+        int leftLength = sum(node.left).length;
+        appendRange(node.left, offset, from, to, out);
+        int ownStart = offset + leftLength;
+        int lo = Math.max(from, ownStart) - ownStart;
+        int hi = Math.min(to, ownStart + node.bases.length) - ownStart;
+        for (int i = lo; i < hi; i++) {
+            out.append(BASE_CHARS[node.bases[i]]);
+        }
+        appendRange(node.right, ownStart + node.bases.length, from, to, out);
+    }
+
+    // Edits can leave many short segments behind; once they clearly outnumber full ones, re-cut the whole rope.
+    // Each rebuild is O(n) but only happens after O(n / SEGMENT_SIZE) edits, so the amortized cost stays small.
+    private void compactIfFragmented() {
+        if (root == null) return;
+        int ideal = root.sum.length / SEGMENT_SIZE + 1;
+        if (root.nodes > 2 * ideal + 64) {
+            byte[] codes = new byte[root.sum.length];
+            copyInto(root, codes, 0);
+            root = build(codes, 0, codes.length);
+        }
+    }
+
+    private static int copyInto(Node node, byte[] codes, int offset) {
+        if (node == null) return offset;
+        offset = copyInto(node.left, codes, offset);
+        System.arraycopy(node.bases, 0, codes, offset, node.bases.length);
+        return copyInto(node.right, codes, offset + node.bases.length);
+    }
+
+    private static Node build(byte[] codes, int from, int to) {
+        Node tree = null;
+        for (int start = from; start < to; start += SEGMENT_SIZE) {
+            int end = Math.min(start + SEGMENT_SIZE, to);
+            byte[] segment = new byte[end - start];
+            System.arraycopy(codes, start, segment, 0, segment.length);
+            tree = merge(tree, new Node(segment));
+        }
+        return tree;
+    }
+
+    // Splits the subtree into the first position bases and the rest, cutting a segment in two if needed.
+    private static Node[] split(Node node, int position) {
+        if (node == null) return new Node[]{null, null};
+        int leftLength = sum(node.left).length;
+        if (position <= leftLength) {
+            Node[] parts = split(node.left, position);
+            node.left = parts[1];
+            node.update();
+            return new Node[]{parts[0], node};
+        }
+        int ownEnd = leftLength + node.bases.length;
+        if (position >= ownEnd) {
+            Node[] parts = split(node.right, position - ownEnd);
+            node.right = parts[0];
+            node.update();
+            return new Node[]{node, parts[1]};
+        }
+        int cut = position - leftLength;
+        byte[] head = new byte[cut];
+        byte[] tail = new byte[node.bases.length - cut];
+        System.arraycopy(node.bases, 0, head, 0, cut);
+        System.arraycopy(node.bases, cut, tail, 0, tail.length);
+        return new Node[]{merge(node.left, new Node(head)), merge(new Node(tail), node.right)};
+    }
+
+    private static Node merge(Node a, Node b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            a.update();
+            return a;
+        }
+        b.left = merge(a, b.left);
+        b.update();
+        return b;
+    }
+
+    private static Summary sum(Node node) {
+        return node == null ? Summary.EMPTY : node.sum;
+    }
+
+    private static final class Node {
+        final byte[] bases;
+        final Summary own;
+        final int priority = ThreadLocalRandom.current().nextInt();
+        Node left;
+        Node right;
+        Summary sum;
+        int nodes;
+
+        Node(byte[] bases) {
+            this.bases = bases;
+            this.own = Summary.of(bases, 0, bases.length);
+            update();
+        }
+
+        void update() {
+            sum = Summary.combine(Summary.combine(SequenceRope.sum(left), own), SequenceRope.sum(right));
+            nodes = 1 + (left == null ? 0 : left.nodes) + (right == null ? 0 : right.nodes);
+        }
+    }
+
+    /**
+     * Aggregate statistics for a contiguous run of bases. Codon counts only include codons that lie entirely
+     * inside the run, indexed by start position modulo 3 relative to the start of the run.
+     *
+     * To count ORFs without rescanning, each frame also tracks the ATGs whose reading frame has not ended yet
+     * ({@code open}), the ATGs that reached a stop codon ({@code orfs}), and which kind of codon first ended
+     * the frame in this run, so the ATGs still open on the left can be settled when a run is appended.
+     */
+    public static final class Summary {
+
+        private static final byte NO_END = 0, STOP_END = 1, AMBIGUOUS_END = 2;
+
+        static final Summary EMPTY = new Summary(0, new int[BASE_CHARS.length], new int[3], new int[3], new int[3],
+                new int[3], new int[3], new byte[3], new byte[0], new byte[0]);
+
+        public final int length;
+        private final int[] counts;
+        private final int[] starts;
+        private final int[] stops;
+        private final int[] ambiguous;
+        private final int[] orfs;
+        private final int[] open;
+        private final byte[] firstEnd;
+        private final byte[] head;
+        private final byte[] tail;
+
+        private Summary(int length, int[] counts, int[] starts, int[] stops, int[] ambiguous, int[] orfs,
+                        int[] open, byte[] firstEnd, byte[] head, byte[] tail) {
+            this.length = length;
+            this.counts = counts;
+            this.starts = starts;
+            this.stops = stops;
+            this.ambiguous = ambiguous;
+            this.orfs = orfs;
+            this.open = open;
+            this.firstEnd = firstEnd;
+            this.head = head;
+            this.tail = tail;
+        }
+
+        public int baseCount(byte code) {
+            return counts[code];
+        }
+
+        public int count(Codon codon, int frame) {
+            switch (codon) {
+                case START: return starts[frame];
+                case STOP: return stops[frame];
+                default: return stops[frame] + ambiguous[frame];
+            }
+        }
+
+        /**
+         * The number of ORFs in the run: ATGs followed by an in-frame stop codon with no ambiguous codon between
+         * them, counted the same way as {@link SequenceService} lists them.
+         */
+        public int orfCount() {
+            return orfs[0] + orfs[1] + orfs[2];
+        }
+
+        static Summary of(byte[] bases, int from, int to) {
+            int length = to - from;
+            int[] counts = new int[BASE_CHARS.length];
+            int[] starts = new int[3];
+            int[] stops = new int[3];
+            int[] ambiguous = new int[3];
+            int[] orfs = new int[3];
+            int[] open = new int[3];
+            byte[] firstEnd = new byte[3];
+            for (int i = from; i < to; i++) {
+                counts[bases[i]]++;
+                if (i + 2 < to) {
+                    countCodon(bases[i], bases[i + 1], bases[i + 2], (i - from) % 3,
+                            starts, stops, ambiguous, orfs, open, firstEnd);
+                }
+            }
+            byte[] head = new byte[Math.min(2, length)];
+            byte[] tail = new byte[Math.min(2, length)];
+            System.arraycopy(bases, from, head, 0, head.length);
+            System.arraycopy(bases, to - tail.length, tail, 0, tail.length);
+            return new Summary(length, counts, starts, stops, ambiguous, orfs, open, firstEnd, head, tail);
+        }
+
+        static Summary combine(Summary x, Summary y) {
+            if (x.length == 0) return y;
+            if (y.length == 0) return x;
+
+            int[] counts = new int[BASE_CHARS.length];
+            for (int i = 0; i < counts.length; i++) counts[i] = x.counts[i] + y.counts[i];
+            int[] starts = x.starts.clone();
+            int[] stops = x.stops.clone();
+            int[] ambiguous = x.ambiguous.clone();
+            int[] orfs = x.orfs.clone();
+            int[] open = x.open.clone();
+            byte[] firstEnd = x.firstEnd.clone();
+
+            // Codons that begin in x's last two bases and end inside y's first two were in neither summary.
+            // In each frame they come after x's codons and before y's, so they are applied first.
+            byte[] joint = new byte[x.tail.length + y.head.length];
+            System.arraycopy(x.tail, 0, joint, 0, x.tail.length);
+            System.arraycopy(y.head, 0, joint, x.tail.length, y.head.length);
+            int jointStart = x.length - x.tail.length;
+            for (int k = 0; k < x.tail.length && k + 2 < joint.length; k++) {
+                countCodon(joint[k], joint[k + 1], joint[k + 2], (jointStart + k) % 3,
+                        starts, stops, ambiguous, orfs, open, firstEnd);
+            }
+
+            int shift = x.length % 3;
+            for (int r = 0; r < 3; r++) {
+                int frame = (r + shift) % 3;
+                starts[frame] += y.starts[r];
+                stops[frame] += y.stops[r];
+                ambiguous[frame] += y.ambiguous[r];
+                orfs[frame] += y.orfs[r];
+                // ATGs still open on the left close at y's first frame-ending codon, if it has one.
+                if (y.firstEnd[r] == STOP_END) {
+                    orfs[frame] += open[frame];
+                    open[frame] = y.open[r];
+                } else if (y.firstEnd[r] == AMBIGUOUS_END) {
+                    open[frame] = y.open[r];
+                } else {
+                    open[frame] += y.open[r];
+                }
+                if (firstEnd[frame] == NO_END) {
+                    firstEnd[frame] = y.firstEnd[r];
+                }
+            }
+
+            return new Summary(x.length + y.length, counts, starts, stops, ambiguous, orfs, open, firstEnd,
+                    edge(x.head, y.head, true), edge(x.tail, y.tail, false));
+        }
+
+        // The first (or last) two bases of the concatenation, given the first (or last) two of each part.
+        private static byte[] edge(byte[] a, byte[] b, boolean head) {
+            if (a.length == 2 && head) return a;
+            if (b.length == 2 && !head) return b;
+            byte[] both = new byte[a.length + b.length];
+            System.arraycopy(a, 0, both, 0, a.length);
+            System.arraycopy(b, 0, both, a.length, b.length);
+            byte[] result = new byte[Math.min(2, both.length)];
+            System.arraycopy(both, head ? 0 : both.length - result.length, result, 0, result.length);
+            return result;
+        }
+
+        // Appends one codon to the given frame of a run that is being summarized from left to right.
+        private static void countCodon(byte b1, byte b2, byte b3, int frame, int[] starts, int[] stops,
+                                       int[] ambiguous, int[] orfs, int[] open, byte[] firstEnd) {
+            if (b1 == A && b2 == T && b3 == G) {
+                starts[frame]++;
+                open[frame]++;
+            } else if (b1 == T && ((b2 == A && (b3 == A || b3 == G)) || (b2 == G && b3 == A))) {
+                stops[frame]++;
+                orfs[frame] += open[frame];
+                open[frame] = 0;
+                if (firstEnd[frame] == NO_END) firstEnd[frame] = STOP_END;
+            } else if (b1 >= OTHER || b2 >= OTHER || b3 >= OTHER) {
+                ambiguous[frame]++;
+                open[frame] = 0;
+                if (firstEnd[frame] == NO_END) firstEnd[frame] = AMBIGUOUS_END;
+            }
+        }
+    }
+}
@@ -1,13 +1,13 @@
 package com.biotool.service;
 
 import com.biotool.model.AnalysisResult;
+import com.biotool.service.SequenceNormalizer.NormalizedSequence;
 import org.springframework.stereotype.Service;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * This service contains the core business logic for all bioinformatics calculations.
@@ -15,6 +15,12 @@ import java.util.regex.Pattern;
 @Service
 public class SequenceService {
 
+    /**
+     * The version of the results {@link #analyze} produces. Stored analyses carry the version they were computed
+     * with and are recomputed when an older one is saved again, so bump this whenever a change alters the results.
+     */
+    public static final int ANALYSIS_VERSION = 1;
+
     // A map to translate RNA codons into single-letter amino acid codes based on the standard genetic code.
     private static final Map<String, String> CODON_MAP = new HashMap<>();
     static {
@@ -42,8 +48,25 @@ public class SequenceService {
         CODON_MAP.put("GGG", "G");
     }
 
-    // A regular expression to quickly validate if a sequence consists only of DNA characters.
-    private static final Pattern DNA_PATTERN = Pattern.compile("^[ATGC]+$");
+    // IUPAC complements, indexed by upper-case base; ambiguity codes map to the code for the complementary set.
+    private static final char[] COMPLEMENT = new char[128];
+    static {
+        Arrays.fill(COMPLEMENT, 'N');
+        String from = "ACGTRYKMSWBDHVN";
+        String to   = "TGCAYRMKSWVHDBN";
+        for (int i = 0; i < from.length(); i++) {
+            COMPLEMENT[from.charAt(i)] = to.charAt(i);
+        }
+    }
+
+    /**
+     * Normalizes raw input (FASTA text, line breaks, lower case, IUPAC codes) into a clean sequence.
+     * @param sequence The raw input from the user.
+     * @return The normalized sequence, ready for {@link #analyze(NormalizedSequence)}.
+     */
+    public NormalizedSequence normalize(String sequence) {
+        return SequenceNormalizer.normalize(sequence);
+    }
 
     /**
      * The main analysis method that orchestrates all calculations.
@@ -51,12 +74,22 @@ public class SequenceService {
      * @return An AnalysisResult object containing all calculated data.
      */
     public AnalysisResult analyze(String sequence) {
+        return analyze(normalize(sequence));
+    }
+
+    /**
+     * Analyzes an already normalized sequence. Ambiguous bases such as N are excluded from GC content
+     * and base counts for the melting temperature, translate to X, and end any open reading frame they fall in.
+     * @param normalized The output of {@link #normalize(String)}.
+     * @return An AnalysisResult object containing all calculated data.
+     */
+    public AnalysisResult analyze(NormalizedSequence normalized) {
         AnalysisResult result = new AnalysisResult();
-        String upperSeq = sequence.toUpperCase().trim();
+        String upperSeq = normalized.getSequence();
 
         result.setLength(upperSeq.length());
         
-        if (isDna(upperSeq)) {
+        if (normalized.isNucleotide() && !upperSeq.isEmpty()) {
             result.setSequenceType("DNA");
             result.setGcContent(calculateGcContent(upperSeq));
             result.setNucleotideCounts(countNucleotides(upperSeq));
@@ -66,6 +99,8 @@ public class SequenceService {
             result.setOpenReadingFrames(findOrfs(upperSeq));
             result.setReverseComplement(calculateReverseComplement(upperSeq));
             result.setMeltingTemperature(calculateMeltingTemp(upperSeq));
+            result.setMaskedRegions(normalized.getMaskedRegions());
+            result.setAmbiguousRegions(normalized.getAmbiguousRegions());
         } else {
             result.setSequenceType("Unknown");
             result.setGcContent(0);
@@ -75,27 +110,44 @@ public class SequenceService {
             result.setOpenReadingFrames(new ArrayList<>());
             result.setReverseComplement("N/A for non-DNA sequences");
             result.setMeltingTemperature(0);
+            result.setMaskedRegions(new ArrayList<>());
+            result.setAmbiguousRegions(new ArrayList<>());
         }
 
         return result;
     }
 
-    private boolean isDna(String sequence) {
-        return DNA_PATTERN.matcher(sequence).matches();
-    }
-
+    // GC content over the bases whose strength is known: G, C and S (G/C) against A, T and W (A/T).
+    // Other ambiguity codes, including N, are left out of both the numerator and the denominator.
     private double calculateGcContent(String dna) {
-        if (dna.isEmpty()) return 0;
-        long gcCount = dna.chars().filter(c -> c == 'G' || c == 'C').count();
-        return (double) gcCount / dna.length() * 100;
+        int gcCount = 0;
+        int atCount = 0;
+        for (int i = 0; i < dna.length(); i++) {
+            switch (dna.charAt(i)) {
+                case 'G': case 'C': case 'S': gcCount++; break;
+                case 'A': case 'T': case 'W': atCount++; break;
+                default: break;
+            }
+        }
+        if (gcCount + atCount == 0) return 0;
+        return (double) gcCount / (gcCount + atCount) * 100;
     }
 
+    // Counts A, T, G and C; all ambiguity codes are pooled under 'N', which is only present if any occur.
     private Map<Character, Integer> countNucleotides(String dna) {
-        Map<Character, Integer> counts = new HashMap<>();
-        counts.put('A', 0); counts.put('T', 0); counts.put('G', 0); counts.put('C', 0);
-        for (char nucleotide : dna.toCharArray()) {
-            counts.put(nucleotide, counts.getOrDefault(nucleotide, 0) + 1);
+        int a = 0, t = 0, g = 0, c = 0, n = 0;
+        for (int i = 0; i < dna.length(); i++) {
+            switch (dna.charAt(i)) {
+                case 'A': a++; break;
+                case 'T': t++; break;
+                case 'G': g++; break;
+                case 'C': c++; break;
+                default: n++; break;
+            }
         }
+        Map<Character, Integer> counts = new HashMap<>();
+        counts.put('A', a); counts.put('T', t); counts.put('G', g); counts.put('C', c);
+        if (n > 0) counts.put('N', n);
         return counts;
     }
 
@@ -113,7 +165,7 @@ public class SequenceService {
 
         for (int i = startCodonIndex; i <= rna.length() - 3; i += 3) {
             String codon = rna.substring(i, i + 3);
-            String aminoAcid = CODON_MAP.getOrDefault(codon, "?");
+            String aminoAcid = CODON_MAP.getOrDefault(codon, "X"); // Codons with ambiguous bases are unknown
             if ("*".equals(aminoAcid)) { // Stop at the first stop codon
                 break;
             }
@@ -124,34 +176,35 @@ public class SequenceService {
     
     private List<String> findOrfs(String dna) {
         List<String> orfs = new ArrayList<>();
-        Pattern startCodon = Pattern.compile("ATG");
-        Matcher matcher = startCodon.matcher(dna);
+        int startIndex = dna.indexOf("ATG");
 
-        while (matcher.find()) {
-            int startIndex = matcher.start();
+        while (startIndex != -1) {
             for (int i = startIndex + 3; i <= dna.length() - 3; i += 3) {
-                String codon = dna.substring(i, i + 3);
-                if (codon.equals("TAA") || codon.equals("TAG") || codon.equals("TGA")) {
+                char b1 = dna.charAt(i), b2 = dna.charAt(i + 1), b3 = dna.charAt(i + 2);
+                if (b1 == 'T' && ((b2 == 'A' && (b3 == 'A' || b3 == 'G')) || (b2 == 'G' && b3 == 'A'))) {
                     orfs.add(dna.substring(startIndex, i + 3));
                     break; 
                 }
+                if (!isBase(b1) || !isBase(b2) || !isBase(b3)) {
+                    break; // An ambiguous codon breaks the reading frame, so this start has no ORF
+                }
             }
+            startIndex = dna.indexOf("ATG", startIndex + 1);
         }
         return orfs;
     }
+
+    private static boolean isBase(char base) {
+        return base == 'A' || base == 'C' || base == 'G' || base == 'T';
+    }
     
     private String calculateReverseComplement(String dna) {
-        StringBuilder complement = new StringBuilder();
-        for (char base : dna.toCharArray()) {
-            switch (base) {
-                case 'A': complement.append('T'); break;
-                case 'T': complement.append('A'); break;
-                case 'G': complement.append('C'); break;
-                case 'C': complement.append('G'); break;
-                default: complement.append('N'); break;
-            }
+        char[] complement = new char[dna.length()];
+        for (int i = 0, j = dna.length() - 1; j >= 0; i++, j--) {
+            char base = dna.charAt(j);
+            complement[i] = base < 128 ? COMPLEMENT[base] : 'N';
         }
-        return complement.reverse().toString();
+        return new String(complement);
     }
 
     private double calculateMeltingTemp(String dna) {
@@ -161,8 +214,16 @@ public class SequenceService {
         int t = counts.getOrDefault('T', 0);
         int g = counts.getOrDefault('G', 0);
         int c = counts.getOrDefault('C', 0);
+        return meltingTemperature(a, t, g, c);
+    }
 
-        if (dna.length() < 20) {
+    /**
+     * Estimates the melting temperature from base counts, so callers that track counts incrementally
+     * (such as edit sessions) get the same figure as a full analysis.
+     */
+    static double meltingTemperature(int a, int t, int g, int c) {
+        if (a + t + g + c == 0) return 0;
+        if (a + t + g + c < 20) {
             // Basic formula for short sequences
             return (2.0 * (a + t)) + (4.0 * (g + c));
         } else {
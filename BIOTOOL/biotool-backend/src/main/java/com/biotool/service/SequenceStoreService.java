@@ -0,0 +1,218 @@
+package com.biotool.service;
+
+import com.biotool.entity.SavedAnalysis;
+import com.biotool.model.AnalysisResult;
+import com.biotool.repository.SavedAnalysisRepository;
+import com.biotool.repository.SequenceBlobRepository;
+import com.biotool.service.SequenceNormalizer.NormalizedSequence;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Stores each distinct sequence once, in the content-addressed 'sequence_blobs' table, and keeps count of the
+ * saved analyses that share it.
+ *
+ * Saving a sequence that is already stored only adds a reference: the text is not written again and the analysis
+ * is not recomputed, since its results are kept with the sequence, unless they were computed by an older version of
+ * the analysis, in which case they are recomputed and replaced. Reference counts are changed with atomic
+ * statements in the same transaction as the analyses they count, a sequence is removed once its last analysis is
+ * deleted, and a periodic reconciliation recounts every reference from scratch to repair any drift.
+ */
+@Service
+public class SequenceStoreService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SequenceStoreService.class);
+
+    @Autowired
+    private SequenceBlobRepository sequenceBlobRepository;
+
+    @Autowired
+    private SavedAnalysisRepository savedAnalysisRepository;
+
+    @Autowired
+    private SequenceService sequenceService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${biotool.sequences.migration-chunk-size:100}")
+    private int migrationChunkSize;
+
+    @Value("${biotool.sequences.migrate-on-startup:true}")
+    private boolean migrateOnStartup;
+
+    /**
+     * Points an analysis at the stored copy of its sequence and fills in its type, length and GC content,
+     * storing and analyzing the sequence first if it is new, or re-analyzing it if its stored results are from an
+     * older analysis version. Must run in the transaction that saves the analysis.
+     * @param analysis The analysis about to be saved.
+     * @param normalized The sequence being saved.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void attach(SavedAnalysis analysis, NormalizedSequence normalized) {
+        String sequence = normalized.getSequence();
+        String hash = hash(sequence);
+
+        // A plain read rather than a locking one: the reference is added atomically below, and if the sequence was
+        // removed in between, addReferences finds nothing and the sequence is simply stored again.
+        List<Object[]> summary = sequenceBlobRepository.findSummaryByHash(hash);
+        boolean referenced = !summary.isEmpty() && sequenceBlobRepository.addReferences(hash, 1) == 1;
+        if (referenced && (Integer) summary.get(0)[3] >= SequenceService.ANALYSIS_VERSION) {
+            Object[] row = summary.get(0);
+            analysis.setSequenceType((String) row[0]);
+            analysis.setSequenceLength((Integer) row[1]);
+            analysis.setGcContent((Double) row[2]);
+        } else {
+            AnalysisResult result = sequenceService.analyze(normalized);
+            if (!referenced) {
+                sequenceBlobRepository.insertOrReference(hash, sequence, result.getSequenceType(), result.getLength(),
+                        result.getGcContent(), result.getRnaTranscript(), result.getProteinSequence(),
+                        SequenceService.ANALYSIS_VERSION, LocalDateTime.now());
+            }
+            // Replaces results from an older analysis version, including those of a row another save just stored
+            sequenceBlobRepository.updateAnalysis(hash, result.getSequenceType(), result.getLength(),
+                    result.getGcContent(), result.getRnaTranscript(), result.getProteinSequence(),
+                    SequenceService.ANALYSIS_VERSION);
+            analysis.setSequenceType(result.getSequenceType());
+            analysis.setSequenceLength(result.getLength());
+            analysis.setGcContent(result.getGcContent());
+        }
+
+        analysis.setSequenceBlob(sequenceBlobRepository.getReferenceById(hash));
+        analysis.setOriginalSequence(null);
+        analysis.setRnaTranscript(null);
+        analysis.setProteinSequence(null);
+    }
+
+    /**
+     * Drops references held by analyses that have just been deleted, and removes sequences nothing refers to any
+     * more. Must run in the transaction that deleted the analyses.
+     * @param released How many references to drop, by sequence hash.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(Map<String, Long> released) {
+        if (released.isEmpty()) {
+            return;
+        }
+        // Sorted, so concurrent deletes touching the same sequences always lock them in the same order
+        Map<String, Long> sorted = new TreeMap<>(released);
+        sorted.forEach((hash, count) -> sequenceBlobRepository.addReferences(hash, -count));
+        sequenceBlobRepository.deleteUnreferenced(sorted.keySet());
+    }
+
+    /**
+     * Recounts every sequence's references from the saved analyses, one chunk of sequences per transaction,
+     * and removes sequences nothing refers to.
+     */
+    @Scheduled(cron = "${biotool.sequences.reconcile-cron:0 15 4 * * *}")
+    public void reconcile() {
+        String after = "";
+        while (true) {
+            List<String> hashes = sequenceBlobRepository.findHashesAfter(after, PageRequest.ofSize(migrationChunkSize));
+            if (hashes.isEmpty()) {
+                break;
+            }
+            transactionTemplate.executeWithoutResult(status -> sequenceBlobRepository.recountReferences(hashes));
+            after = hashes.get(hashes.size() - 1);
+        }
+        List<String> unreferenced = sequenceBlobRepository.findUnreferencedHashes();
+        int removed = 0;
+        for (int start = 0; start < unreferenced.size(); start += migrationChunkSize) {
+            List<String> chunk = unreferenced.subList(start, Math.min(start + migrationChunkSize, unreferenced.size()));
+            Integer deleted = transactionTemplate.execute(status -> sequenceBlobRepository.deleteUnreferenced(chunk));
+            removed += deleted != null ? deleted : 0;
+        }
+        if (removed > 0) {
+            logger.warn("Sequence store reconciliation removed {} unreferenced sequences", removed);
+        }
+    }
+
+    /**
+     * Moves analyses saved before sequences were shared into the store, one chunk per transaction.
+     * Each chunk is locked and re-checked first, so several instances starting at once can each run this without
+     * moving an analysis twice. Each sequence is normalized first, as a save does, so it is stored under the same
+     * hash as later saves of the same sequence. Their stored values are kept as they are, marked as coming from
+     * before analysis versions were recorded, so they are recomputed the next time the sequence is saved.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateUnsharedAnalyses() {
+        if (!migrateOnStartup) {
+            return;
+        }
+        int migrated = 0;
+        while (true) {
+            List<Long> ids = savedAnalysisRepository.findUnsharedIds(PageRequest.ofSize(migrationChunkSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            Integer moved = transactionTemplate.execute(status -> {
+                List<SavedAnalysis> analyses = savedAnalysisRepository.lockUnshared(ids);
+                for (SavedAnalysis analysis : analyses) {
+                    // Legacy rows hold the input as typed; store it the way a save would, so the two share a row
+                    String sequence = SequenceNormalizer.normalize(analysis.getOriginalSequence()).getSequence();
+                    String hash = hash(sequence);
+                    sequenceBlobRepository.insertOrReference(hash, sequence, analysis.getSequenceType(),
+                            analysis.getSequenceLength(), analysis.getGcContent(), analysis.getRnaTranscript(),
+                            analysis.getProteinSequence(), 0, LocalDateTime.now());
+                    analysis.setSequenceBlob(sequenceBlobRepository.getReferenceById(hash));
+                    analysis.setOriginalSequence(null);
+                    analysis.setRnaTranscript(null);
+                    analysis.setProteinSequence(null);
+                }
+                return analyses.size();
+            });
+            migrated += moved != null ? moved : 0;
+            if (ids.size() < migrationChunkSize) {
+                break;
+            }
+        }
+        if (migrated > 0) {
+            logger.info("Moved {} saved analyses into the shared sequence store", migrated);
+        }
+    }
+
+    /**
+     * The lower-case hex SHA-256 of a sequence, which is its key in the store.
+     */
+    public static String hash(String sequence) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(sequence.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Counts how many references each sequence loses when the given rows are deleted.
+     * @param rows Rows whose element at the given index is a sequence hash, or null for unshared rows.
+     */
+    static Map<String, Long> countHashes(List<Object[]> rows, int index) {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Object[] row : rows) {
+            if (row[index] != null) {
+                counts.merge((String) row[index], 1L, Long::sum);
+            }
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,185 @@
+package com.biotool.service;
+
+import com.biotool.model.WorkerHeartbeat;
+import com.biotool.model.WorkerStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The coordinator's list of live workers and how many shards each is running.
+ *
+ * Workers register themselves by sending heartbeats. A worker that misses heartbeats for longer than the timeout,
+ * or that cannot be reached, is dropped until its next heartbeat. Shards are handed to the live worker with the
+ * most free capacity relative to its slot count. When local slots are configured, this instance also takes part
+ * as a worker of its own, so a standalone instance runs batch jobs itself.
+ */
+@Service
+public class WorkerRegistry {
+
+    public static final String LOCAL_WORKER = "local";
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkerRegistry.class);
+
+    @Value("${biotool.cluster.worker-timeout-ms:15000}")
+    private long workerTimeoutMs;
+
+    private final Map<String, Worker> workers = new LinkedHashMap<>();
+
+    public WorkerRegistry(@Value("${biotool.cluster.role:standalone}") String role,
+                          @Value("${biotool.cluster.local-slots:-1}") int localSlots) {
+        // By default a coordinator only dispatches, while standalone and worker instances run jobs on their own cores.
+        int slots = localSlots >= 0 ? localSlots
+                : "coordinator".equalsIgnoreCase(role) ? 0 : Runtime.getRuntime().availableProcessors();
+        if (slots > 0) {
+            Worker local = new Worker(LOCAL_WORKER, null, slots);
+            local.lastHeartbeat = Long.MAX_VALUE; // Never expires
+            workers.put(LOCAL_WORKER, local);
+        }
+    }
+
+    /**
+     * Registers a worker or refreshes its heartbeat. A worker that was dropped is brought back.
+     */
+    public synchronized void heartbeat(WorkerHeartbeat heartbeat) {
+        Worker worker = workers.get(heartbeat.getWorkerId());
+        if (worker == null) {
+            worker = new Worker(heartbeat.getWorkerId(), heartbeat.getUrl(), Math.max(1, heartbeat.getSlots()));
+            workers.put(worker.id, worker);
+            logger.info("Worker {} registered at {} with {} slots", worker.id, worker.url, worker.slots);
+        } else {
+            worker.url = heartbeat.getUrl();
+            worker.slots = Math.max(1, heartbeat.getSlots());
+        }
+        worker.lastHeartbeat = System.currentTimeMillis();
+        notifyAll();
+    }
+
+    /**
+     * Reserves a slot on the live worker with the most free capacity, preferring workers other than the one given.
+     * @param avoid A worker to use only if no other has a free slot, e.g. one that just failed this shard; may be null.
+     * @return The chosen worker, or null if every slot is taken.
+     */
+    public synchronized Worker acquire(String avoid) {
+        Worker best = null;
+        Worker fallback = null;
+        for (Worker worker : workers.values()) {
+            if (worker.inFlight >= worker.slots) continue;
+            if (worker.id.equals(avoid)) {
+                fallback = worker;
+            } else if (best == null || freeShare(worker) > freeShare(best)) {
+                best = worker;
+            }
+        }
+        Worker chosen = best != null ? best : fallback;
+        if (chosen != null) {
+            chosen.inFlight++;
+        }
+        return chosen;
+    }
+
+    /**
+     * Waits until a slot may have been freed or a worker registered, or until the timeout passes.
+     */
+    public synchronized void awaitCapacity(long timeoutMs) throws InterruptedException {
+        wait(timeoutMs);
+    }
+
+    /**
+     * Returns a slot reserved by {@link #acquire(String)}.
+     * @param succeeded Whether the shard completed on this worker.
+     */
+    public synchronized void release(Worker worker, boolean succeeded) {
+        worker.inFlight = Math.max(0, worker.inFlight - 1);
+        if (succeeded) {
+            worker.completedShards++;
+        } else {
+            worker.failedShards++;
+        }
+        notifyAll();
+    }
+
+    /**
+     * Returns a slot reserved by {@link #acquire(String)} that ended up not being used.
+     */
+    public synchronized void cancel(Worker worker) {
+        worker.inFlight = Math.max(0, worker.inFlight - 1);
+        notifyAll();
+    }
+
+    /**
+     * Drops a worker that could not be reached. It is brought back by its next heartbeat.
+     */
+    public synchronized void markUnreachable(Worker worker) {
+        if (worker.url != null && workers.remove(worker.id, worker)) {
+            logger.warn("Worker {} at {} is unreachable; dropped until its next heartbeat", worker.id, worker.url);
+        }
+    }
+
+    /**
+     * Drops workers whose last heartbeat is older than the timeout.
+     * @return The IDs of the dropped workers.
+     */
+    public synchronized List<String> expire() {
+        long cutoff = System.currentTimeMillis() - workerTimeoutMs;
+        List<String> expired = new ArrayList<>();
+        Iterator<Worker> iterator = workers.values().iterator();
+        while (iterator.hasNext()) {
+            Worker worker = iterator.next();
+            if (worker.lastHeartbeat < cutoff) {
+                iterator.remove();
+                expired.add(worker.id);
+                logger.warn("Worker {} at {} missed its heartbeats; dropped", worker.id, worker.url);
+            }
+        }
+        return expired;
+    }
+
+    public synchronized List<WorkerStatus> list() {
+        List<WorkerStatus> statuses = new ArrayList<>();
+        for (Worker worker : workers.values()) {
+            LocalDateTime lastHeartbeat = worker.lastHeartbeat == Long.MAX_VALUE ? null
+                    : LocalDateTime.ofInstant(Instant.ofEpochMilli(worker.lastHeartbeat), ZoneId.systemDefault());
+            statuses.add(new WorkerStatus(worker.id, worker.url, worker.slots, worker.inFlight,
+                    worker.completedShards, worker.failedShards, lastHeartbeat));
+        }
+        return statuses;
+    }
+
+    private static double freeShare(Worker worker) {
+        return (double) (worker.slots - worker.inFlight) / worker.slots;
+    }
+
+    /**
+     * A registered worker. The URL is null for the local worker, which runs shards in this process.
+     */
+    public static final class Worker {
+        final String id;
+        volatile String url;
+        int slots;
+        int inFlight;
+        long completedShards;
+        long failedShards;
+        long lastHeartbeat;
+
+        Worker(String id, String url, int slots) {
+            this.id = id;
+            this.url = url;
+            this.slots = slots;
+        }
+
+        public String getId() { return id; }
+        public String getUrl() { return url; }
+        public boolean isLocal() { return url == null; }
+    }
+}
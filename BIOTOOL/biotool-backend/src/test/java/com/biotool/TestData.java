@@ -0,0 +1,51 @@
+package com.biotool;
+
+import com.biotool.entity.SavedAnalysis;
+import com.biotool.entity.User;
+import com.biotool.service.ArchiveStatsService;
+import com.biotool.service.SequenceNormalizer;
+
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Helpers shared by the tests for building sequences, users and saved analyses.
+ */
+public final class TestData {
+
+    private TestData() {}
+
+    /**
+     * A random sequence of the four plain bases.
+     */
+    public static String randomBases(Random random, int length) {
+        return randomBases(random, length, "ACGT");
+    }
+
+    /**
+     * A random sequence drawn from the given characters; repeat a character to make it more likely.
+     */
+    public static String randomBases(Random random, int length, String alphabet) {
+        StringBuilder bases = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            bases.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return bases.toString();
+    }
+
+    /**
+     * Registers a user with a unique name, so tests sharing a database never see each other's analyses.
+     */
+    public static User newUser(ArchiveStatsService archiveStatsService) {
+        return archiveStatsService.createUser(new User("user-" + UUID.randomUUID(), "secret"));
+    }
+
+    /**
+     * Saves an analysis of the sequence for the user, the way the save endpoint does.
+     */
+    public static SavedAnalysis save(ArchiveStatsService archiveStatsService, User user, String sequence) {
+        SavedAnalysis analysis = new SavedAnalysis();
+        analysis.setUser(user);
+        return archiveStatsService.save(analysis, SequenceNormalizer.normalize(sequence));
+    }
+}
@@ -0,0 +1,97 @@
+package com.biotool.cli;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SequenceCliTest {
+
+    private static final String FASTA = ">first some description\natgaaa\ntag\n>second\nGGCC\nNNAT\n";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void writesTsvInInputOrder() throws Exception {
+        String[] lines = run(FASTA, "--threads=2").split("\n");
+
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).isEqualTo("id\ttype\tlength\tgc_content\tmelting_temperature\torf_count"
+                + "\tcount_a\tcount_c\tcount_g\tcount_t\tcount_n\tmasked_bases");
+        // Lower-case bases are soft-masked
+        assertThat(lines[1].split("\t")).startsWith("first", "DNA", "9").endsWith("5", "0", "2", "2", "0", "9");
+        assertThat(lines[1].split("\t")[5]).isEqualTo("1");
+        assertThat(lines[2].split("\t")).startsWith("second", "DNA", "8").endsWith("1", "2", "2", "1", "2", "0");
+    }
+
+    @Test
+    void writesNdjsonWithEscapedStrings() throws Exception {
+        String input = "ATGTAA\n>quote\"back\\slash\u0001ctl\nATGCCCTGA\n";
+        String[] lines = run(input, "--format=ndjson", "--sequences=true", "--threads=1").split("\n");
+
+        assertThat(lines).hasSize(2);
+        JsonNode unnamed = objectMapper.readTree(lines[0]);
+        assertThat(unnamed.get("id").asText()).isEqualTo("record-1");
+        assertThat(unnamed.get("orfCount").asInt()).isEqualTo(1);
+        assertThat(unnamed.get("nucleotideCounts").has("N")).isFalse();
+
+        JsonNode named = objectMapper.readTree(lines[1]);
+        assertThat(named.get("id").asText()).isEqualTo("quote\"back\\slash\u0001ctl");
+        assertThat(lines[1]).contains("\\u0001");
+        assertThat(named.get("length").asInt()).isEqualTo(9);
+        assertThat(named.get("proteinSequence").asText()).isEqualTo("MP");
+        assertThat(named.get("openReadingFrames").get(0).asText()).isEqualTo("ATGCCCTGA");
+    }
+
+    @Test
+    void rejectsUnknownFormats() {
+        assertThatThrownBy(() -> new SequenceCli(Map.of("format", "xml")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("xml");
+    }
+
+    @Test
+    void runsWithoutSpringOnTheClasspath() throws Exception {
+        try (URLClassLoader loader = applicationOnly()) {
+            assertThatThrownBy(() -> Class.forName("org.springframework.context.ApplicationContext", false, loader))
+                    .isInstanceOf(ClassNotFoundException.class);
+            assertThat(run(FASTA, "--format=ndjson")).hasLineCount(2);
+        }
+    }
+
+    // Runs the CLI's main method on in-memory standard input and output, loaded with the application classes only
+    // and no libraries, so any use of Spring would fail with NoClassDefFoundError.
+    private static String run(String input, String... args) throws Exception {
+        InputStream stdin = System.in;
+        PrintStream stdout = System.out;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (URLClassLoader loader = applicationOnly()) {
+            System.setIn(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+            System.setOut(new PrintStream(out, true, StandardCharsets.UTF_8));
+            loader.loadClass(SequenceCli.class.getName()).getMethod("main", String[].class).invoke(null, (Object) args);
+        } catch (InvocationTargetException e) {
+            throw (Exception) e.getCause();
+        } finally {
+            System.setIn(stdin);
+            System.setOut(stdout);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static URLClassLoader applicationOnly() {
+        URL classes = SequenceCli.class.getProtectionDomain().getCodeSource().getLocation();
+        return new URLClassLoader(new URL[] {classes}, ClassLoader.getPlatformClassLoader());
+    }
+}
@@ -0,0 +1,117 @@
+package com.biotool.config;
+
+import com.biotool.entity.SavedAnalysis;
+import com.biotool.model.AnalysisResult;
+import com.biotool.service.SequenceService;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+import static com.biotool.TestData.randomBases;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PackedFormatHttpMessageConverterTest {
+
+    private static final Type HISTORY = new ParameterizedTypeReference<List<SavedAnalysis>>() {}.getType();
+
+    private final PackedFormatHttpMessageConverter converter = new PackedFormatHttpMessageConverter();
+    private final SequenceService sequenceService = new SequenceService();
+
+    @Test
+    void analysisRoundTripsExactly() throws IOException {
+        String input = ">test\n" + randomBases(new Random(11), 5000, "ACGTACGTACGTACGTNacgtR");
+        AnalysisResult result = sequenceService.analyze(input);
+        assertThat(result.getOpenReadingFrames()).isNotEmpty();
+        assertThat(result.getAmbiguousRegions()).isNotEmpty();
+
+        assertThat(roundTrip(result, AnalysisResult.class)).usingRecursiveComparison().isEqualTo(result);
+    }
+
+    @Test
+    void nonNucleotideAnalysisRoundTripsExactly() throws IOException {
+        AnalysisResult result = sequenceService.analyze("MKVLEEQRWP");
+
+        assertThat(roundTrip(result, AnalysisResult.class)).usingRecursiveComparison().isEqualTo(result);
+    }
+
+    @Test
+    void nullAndEmptyStringsStayDistinct() throws IOException {
+        SavedAnalysis empty = new SavedAnalysis();
+        empty.setId(7L);
+        empty.setArchiveId("");
+        empty.setStatus(null);
+        empty.setCreatedAt(LocalDateTime.of(2024, 3, 1, 12, 30, 15));
+        empty.setSequenceType("DNA");
+        empty.setSequenceLength(0);
+        empty.setOriginalSequence("");
+        empty.setRnaTranscript(null);
+        empty.setProteinSequence("No start codon found.");
+
+        SavedAnalysis full = new SavedAnalysis();
+        full.setId(8L);
+        full.setArchiveId("a1b2");
+        full.setStatus("COMPLETED");
+        full.setSequenceType("DNA");
+        full.setSequenceLength(40);
+        full.setGcContent(47.5);
+        full.setOriginalSequence("ATGCGTACGTTAGCNNATGCGTACGTTAGCATGCGTACGT");
+        full.setRnaTranscript("AUGCGUACGUUAGCNNAUGCGUACGUUAGCAUGCGUACGU");
+        full.setProteinSequence("MRT");
+
+        List<SavedAnalysis> history = List.of(empty, full);
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(history, HISTORY, PackedFormatHttpMessageConverter.PACKED, output);
+        @SuppressWarnings("unchecked")
+        List<SavedAnalysis> decoded = (List<SavedAnalysis>) converter.read(HISTORY, null, input(output));
+
+        assertThat(decoded).hasSize(2);
+        assertThat(decoded.get(0).getArchiveId()).isEmpty();
+        assertThat(decoded.get(0).getStatus()).isNull();
+        assertThat(decoded.get(0).getOriginalSequence()).isEmpty();
+        assertThat(decoded.get(0).getRnaTranscript()).isNull();
+        assertThat(decoded).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(history);
+    }
+
+    @Test
+    void nucleotideStringsArePackedAndTheResponseIsStreamed() throws IOException {
+        AnalysisResult result = sequenceService.analyze("ACGT".repeat(1000));
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(result, AnalysisResult.class, PackedFormatHttpMessageConverter.PACKED, output);
+
+        // Transcript and reverse complement at 2 bits per base, plus a little framing.
+        assertThat(output.getBodyAsBytes().length).isLessThan(2 * 1000 + 200);
+        assertThat(output.getHeaders().getContentLength()).isEqualTo(-1);
+    }
+
+    @Test
+    void onlyServedAndReadWhenAskedForExplicitly() {
+        assertThat(converter.canWrite(AnalysisResult.class, AnalysisResult.class, MediaType.ALL)).isFalse();
+        assertThat(converter.canWrite(AnalysisResult.class, AnalysisResult.class,
+                PackedFormatHttpMessageConverter.PACKED)).isTrue();
+        assertThat(converter.canWrite(HISTORY, List.class, PackedFormatHttpMessageConverter.PACKED)).isTrue();
+        assertThat(converter.canRead(AnalysisResult.class, null, null)).isFalse();
+        assertThat(converter.canRead(AnalysisResult.class, null, MediaType.APPLICATION_JSON)).isFalse();
+        assertThat(converter.canRead(HISTORY, null, PackedFormatHttpMessageConverter.PACKED)).isTrue();
+        assertThat(converter.canRead(String.class, null, PackedFormatHttpMessageConverter.PACKED)).isFalse();
+    }
+
+    private <T> T roundTrip(T value, Class<T> type) throws IOException {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(value, type, PackedFormatHttpMessageConverter.PACKED, output);
+        return type.cast(converter.read(type, null, input(output)));
+    }
+
+    private static MockHttpInputMessage input(MockHttpOutputMessage output) {
+        MockHttpInputMessage input = new MockHttpInputMessage(output.getBodyAsBytes());
+        input.getHeaders().setContentType(PackedFormatHttpMessageConverter.PACKED);
+        return input;
+    }
+}
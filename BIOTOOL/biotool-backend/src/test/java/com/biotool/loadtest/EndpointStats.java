@@ -0,0 +1,62 @@
+package com.biotool.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Collects latency samples and error counts for a single endpoint during a load test run.
+ * Samples are kept in a growable array of nanosecond durations and sorted once when the report is built.
+ */
+public class EndpointStats {
+
+    private final String name;
+    private long[] latencies = new long[1024];
+    private int count;
+    private long errors;
+
+    public EndpointStats(String name) {
+        this.name = name;
+    }
+
+    public synchronized void record(long latencyNanos, boolean success) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+        if (!success) {
+            errors++;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized int getCount() {
+        return count;
+    }
+
+    public synchronized long getErrors() {
+        return errors;
+    }
+
+    /**
+     * Formats one line of the report: request count, throughput, latency percentiles in milliseconds and error rate.
+     * @param elapsedSeconds The length of the measured window, used to compute throughput.
+     */
+    public synchronized String formatRow(double elapsedSeconds) {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        double errorRate = count == 0 ? 0 : (double) errors / count * 100;
+        return String.format("%-18s %9d %10.1f %9.2f %9.2f %9.2f %9.2f %8.2f%%",
+                name, count, count / elapsedSeconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1_000_000.0,
+                errorRate);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,292 @@
+package com.biotool.loadtest;
+
+import com.biotool.BiotoolApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A self-contained load-testing harness for the BioTool API.
+ *
+ * By default it boots the application on a random port with the "h2" profile (an embedded in-memory database),
+ * then drives a mixed workload of register/login, analyze, save, history and delete calls from many concurrent
+ * virtual users at a fixed target request rate. When the run ends it prints throughput, p50/p99/p999 latency and
+ * error rate per endpoint. Latency is measured from the time each request was scheduled to go out, not from when a
+ * virtual user got round to sending it, so a saturated server shows up in the percentiles instead of being hidden
+ * by users that fall behind schedule. The harness and the "h2" profile live in the test sources, so neither ships in the
+ * application jar.
+ *
+ * Usage (all options are optional):
+ * <pre>
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt -Dmdep.includeScope=test
+ *   java -cp target/test-classes:target/classes:$(cat cp.txt) com.biotool.loadtest.LoadTestHarness \
+ *        --users=50 --rate=200 --duration=60 --warmup=10 --min-length=200 --max-length=2000 \
+ *        [--base-url=http://host:8080]
+ * </pre>
+ * Passing --base-url skips the embedded boot and targets an already running instance instead.
+ */
+public class LoadTestHarness {
+
+    // The workload mix, as relative weights. Register/login happen once per virtual user at startup.
+    private static final String[] OPERATIONS = {"analyze", "save", "history", "delete"};
+    private static final int[] WEIGHTS = {45, 25, 20, 10};
+
+    private static final char[] BASES = {'A', 'T', 'G', 'C'};
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpClient client;
+    private final String baseUrl;
+    private final Map<String, String> options;
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+
+    private final AtomicLong nextSlot = new AtomicLong();
+    // Deletes drawn before the virtual user had seen any saved analysis; no request is sent for them.
+    private final AtomicLong skippedDeletes = new AtomicLong();
+    private long intervalNanos;
+    private long measureFrom;
+    private long stopAt;
+
+    public LoadTestHarness(String baseUrl, Map<String, String> options) {
+        this.baseUrl = baseUrl;
+        this.options = options;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newCachedThreadPool())
+                .build();
+        for (String endpoint : new String[]{"register", "login", "analyze", "save", "history", "delete"}) {
+            stats.put(endpoint, new EndpointStats(endpoint));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+
+        ConfigurableApplicationContext context = null;
+        String baseUrl = options.get("base-url");
+        if (baseUrl == null) {
+            context = new SpringApplicationBuilder(BiotoolApplication.class)
+                    .profiles("h2")
+                    .run("--server.port=0", "--logging.level.root=WARN");
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+
+        try {
+            new LoadTestHarness(baseUrl + "/api", options).run();
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Runs the configured workload to completion and prints the report to standard output.
+     */
+    public void run() throws InterruptedException {
+        int users = intOption("users", 50);
+        int rate = intOption("rate", 200);
+        int durationSeconds = intOption("duration", 60);
+        int warmupSeconds = intOption("warmup", 10);
+
+        System.out.printf("Target %s: %d users, %d req/s, %ds warmup + %ds measured%n",
+                baseUrl, users, rate, warmupSeconds, durationSeconds);
+
+        long now = System.nanoTime();
+        intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, rate);
+        nextSlot.set(now);
+        measureFrom = now + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        stopAt = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        ExecutorService pool = Executors.newFixedThreadPool(users);
+        for (int i = 0; i < users; i++) {
+            int userIndex = i;
+            pool.submit(() -> runVirtualUser(userIndex));
+        }
+        pool.shutdown();
+        pool.awaitTermination(warmupSeconds + durationSeconds + 60L, TimeUnit.SECONDS);
+
+        // Users still draining their last requests run past stopAt, so the measured window is what actually elapsed
+        printReport((System.nanoTime() - measureFrom) / 1e9);
+    }
+
+    private void runVirtualUser(int userIndex) {
+        String username = "load-" + userIndex + "-" + Long.toHexString(System.nanoTime());
+        String password = "password-" + userIndex;
+        String credentials = "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}";
+
+        // Registration and login are always recorded, even during warmup, since they only happen once per user.
+        call("register", "POST", "/auth/register", credentials, null, System.nanoTime(), true);
+        HttpResponse<String> login = call("login", "POST", "/auth/login", credentials, null, System.nanoTime(), true);
+        String token = readField(login, "token");
+        if (token == null) {
+            return;
+        }
+
+        Deque<Long> savedIds = new ArrayDeque<>();
+        while (true) {
+            long slot = nextSlot.getAndAdd(intervalNanos);
+            if (slot >= stopAt) {
+                return;
+            }
+            waitUntil(slot);
+            boolean measured = slot >= measureFrom;
+
+            switch (pickOperation()) {
+                case "analyze":
+                    call("analyze", "POST", "/sequence/analyze", sequenceBody(), token, slot, measured);
+                    break;
+                case "save":
+                    call("save", "POST", "/analysis/save", sequenceBody(), token, slot, measured);
+                    break;
+                case "delete":
+                    if (savedIds.isEmpty()) {
+                        // Nothing known to delete until the next history call; counted apart from real calls
+                        if (measured) skippedDeletes.incrementAndGet();
+                    } else {
+                        call("delete", "DELETE", "/analysis/" + savedIds.poll(), null, token, slot, measured);
+                    }
+                    break;
+                case "history":
+                    HttpResponse<String> history = call("history", "GET", "/analysis/history", null, token, slot, measured);
+                    collectIds(history, savedIds);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    // Records the latency from the request's scheduled slot, which includes any time it spent waiting for its user.
+    private HttpResponse<String> call(String endpoint, String method, String path, String body, String token,
+                                      long slot, boolean measured) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .method(method, body == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+
+        HttpResponse<String> response = null;
+        try {
+            response = client.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        long elapsed = System.nanoTime() - slot;
+        if (measured) {
+            boolean success = response != null && response.statusCode() / 100 == 2;
+            stats.get(endpoint).record(elapsed, success);
+        }
+        return response;
+    }
+
+    private String readField(HttpResponse<String> response, String field) {
+        if (response == null || response.statusCode() != 200) return null;
+        try {
+            JsonNode node = mapper.readTree(response.body()).get(field);
+            return node == null ? null : node.asText();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private void collectIds(HttpResponse<String> response, Deque<Long> savedIds) {
+        if (response == null || response.statusCode() != 200) return;
+        try {
+            savedIds.clear();
+            for (JsonNode item : mapper.readTree(response.body())) {
+                savedIds.add(item.get("id").asLong());
+            }
+        } catch (Exception ignored) {
+            // A malformed history response is already counted as a successful call; just skip the ids.
+        }
+    }
+
+    private String sequenceBody() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int length = random.nextInt(intOption("min-length", 200), intOption("max-length", 2000) + 1);
+        StringBuilder sequence = new StringBuilder(length + 16).append("{\"sequence\":\"");
+        for (int i = 0; i < length; i++) {
+            sequence.append(BASES[random.nextInt(4)]);
+        }
+        return sequence.append("\"}").toString();
+    }
+
+    private static String pickOperation() {
+        int total = 0;
+        for (int weight : WEIGHTS) total += weight;
+        int roll = ThreadLocalRandom.current().nextInt(total);
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            roll -= WEIGHTS[i];
+            if (roll < 0) return OPERATIONS[i];
+        }
+        return OPERATIONS[0];
+    }
+
+    private static void waitUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void printReport(double elapsedSeconds) {
+        System.out.println();
+        System.out.printf("%-18s %9s %10s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "errors");
+        long total = 0;
+        long errors = 0;
+        for (EndpointStats endpoint : stats.values()) {
+            System.out.println(endpoint.formatRow(elapsedSeconds));
+            total += endpoint.getCount();
+            errors += endpoint.getErrors();
+        }
+        System.out.printf("%nTotal: %d requests in %.1fs, %.1f req/s, %d errors%n",
+                total, elapsedSeconds, total / elapsedSeconds, errors);
+        System.out.printf("Skipped %d deletes drawn before any saved analysis was known%n", skippedDeletes.get());
+    }
+
+    private int intOption(String name, int defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                int split = arg.indexOf('=');
+                options.put(arg.substring(2, split), arg.substring(split + 1));
+            }
+        }
+        return options;
+    }
+}
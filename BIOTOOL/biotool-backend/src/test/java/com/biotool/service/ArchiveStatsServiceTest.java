@@ -0,0 +1,155 @@
+package com.biotool.service;
+
+import com.biotool.entity.ArchiveStats;
+import com.biotool.entity.SavedAnalysis;
+import com.biotool.entity.User;
+import com.biotool.repository.ArchiveStatsRepository;
+import com.biotool.repository.SavedAnalysisRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.biotool.TestData.newUser;
+import static com.biotool.TestData.save;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class ArchiveStatsServiceTest {
+
+    private static final String GC_50 = "ATGCATGCAT" + "GC";   // 12 bases, 50% GC
+    private static final String GC_100 = "GGCCGGCC";          // 8 bases, 100% GC
+    private static final String PROTEIN = "MKVLEEQRWP";      // Not a nucleotide sequence
+
+    @Autowired
+    private ArchiveStatsService archiveStatsService;
+
+    @Autowired
+    private ArchiveStatsRepository archiveStatsRepository;
+
+    @Autowired
+    private SavedAnalysisRepository savedAnalysisRepository;
+
+    @Test
+    void saveAndDeleteKeepStatisticsInStepWithTheArchive() {
+        User user = newUser(archiveStatsService);
+        SavedAnalysis first = save(archiveStatsService, user, GC_50);
+        save(archiveStatsService, user, GC_50);
+        save(archiveStatsService, user, GC_100);
+        save(archiveStatsService, user, PROTEIN);
+
+        ArchiveStats stats = archiveStatsService.getStats(user.getId());
+        assertThat(stats.getTotalAnalyses()).isEqualTo(4);
+        assertThat(stats.getTotalBasePairs()).isEqualTo(12 + 12 + 8 + 10);
+        assertThat(stats.getGcHistogram()[5]).isEqualTo(2);
+        assertThat(stats.getGcHistogram()[9]).isEqualTo(1);
+        assertThat(stats.getSequenceTypeCounts()).containsEntry("DNA", 3L);
+
+        assertThat(archiveStatsService.delete(user, List.of(first.getId()))).isEqualTo(1);
+        stats = archiveStatsService.getStats(user.getId());
+        assertThat(stats.getTotalAnalyses()).isEqualTo(3);
+        assertThat(stats.getTotalBasePairs()).isEqualTo(12 + 8 + 10);
+        assertThat(stats.getGcHistogram()[5]).isEqualTo(1);
+        assertThat(stats.getSequenceTypeCounts()).containsEntry("DNA", 2L);
+        assertSameAsRecomputed(user);
+    }
+
+    @Test
+    void deletingSomeoneElsesAnalysisChangesNothing() {
+        User owner = newUser(archiveStatsService);
+        User other = newUser(archiveStatsService);
+        SavedAnalysis analysis = save(archiveStatsService, owner, GC_50);
+
+        assertThat(archiveStatsService.delete(other, List.of(analysis.getId()))).isZero();
+        assertThat(archiveStatsService.getStats(owner.getId()).getTotalAnalyses()).isEqualTo(1);
+        assertThat(savedAnalysisRepository.existsById(analysis.getId())).isTrue();
+    }
+
+    @Test
+    void missingRowIsBuiltFromTheExistingArchive() {
+        User user = newUser(archiveStatsService);
+        save(archiveStatsService, user, GC_50);
+        save(archiveStatsService, user, GC_100);
+        archiveStatsRepository.deleteById(user.getId());
+
+        save(archiveStatsService, user, GC_50);
+
+        ArchiveStats stats = archiveStatsService.getStats(user.getId());
+        assertThat(stats.getTotalAnalyses()).isEqualTo(3);
+        assertThat(stats.getTotalBasePairs()).isEqualTo(12 + 8 + 12);
+        assertSameAsRecomputed(user);
+    }
+
+    @Test
+    void concurrentFirstSavesCreateOneCorrectRow() throws Exception {
+        User user = newUser(archiveStatsService);
+        save(archiveStatsService, user, GC_100);
+        archiveStatsRepository.deleteById(user.getId());
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<SavedAnalysis>> saves = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                saves.add(pool.submit(() -> save(archiveStatsService, user, GC_50)));
+            }
+            for (Future<SavedAnalysis> future : saves) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        ArchiveStats stats = archiveStatsService.getStats(user.getId());
+        assertThat(stats.getTotalAnalyses()).isEqualTo(9);
+        assertSameAsRecomputed(user);
+    }
+
+    @Test
+    void backfillCreatesRowsForUsersWithoutOne() {
+        User user = newUser(archiveStatsService);
+        save(archiveStatsService, user, GC_50);
+        archiveStatsRepository.deleteById(user.getId());
+
+        archiveStatsService.backfillMissingStats();
+
+        assertThat(archiveStatsRepository.findById(user.getId()))
+                .hasValueSatisfying(stats -> assertThat(stats.getTotalAnalyses()).isEqualTo(1));
+    }
+
+    @Test
+    void reconciliationRepairsDriftBeyondTheTotals() {
+        User user = newUser(archiveStatsService);
+        save(archiveStatsService, user, GC_50);
+        save(archiveStatsService, user, GC_100);
+        ArchiveStats stats = archiveStatsRepository.findById(user.getId()).orElseThrow();
+        // Same totals, wrong histogram and type counts
+        stats.setGcHistogram(new long[ArchiveStats.GC_BUCKETS]);
+        stats.getGcHistogram()[0] = 2;
+        stats.setSequenceTypeCounts(new java.util.TreeMap<>(Map.of("RNA", 2L)));
+        archiveStatsRepository.save(stats);
+
+        archiveStatsService.reconcileAll();
+
+        assertSameAsRecomputed(user);
+    }
+
+    private void assertSameAsRecomputed(User user) {
+        ArchiveStats expected = new ArchiveStats(user.getId());
+        for (SavedAnalysis analysis : savedAnalysisRepository.findByUser(user)) {
+            expected.apply(analysis.getSequenceType(), analysis.getSequenceLength(), analysis.getGcContent(), 1);
+        }
+        ArchiveStats actual = archiveStatsService.getStats(user.getId());
+        assertThat(actual.getTotalAnalyses()).isEqualTo(expected.getTotalAnalyses());
+        assertThat(actual.getTotalBasePairs()).isEqualTo(expected.getTotalBasePairs());
+        assertThat(actual.getGcHistogram()).containsExactly(expected.getGcHistogram());
+        assertThat(actual.getSequenceTypeCounts()).isEqualTo(expected.getSequenceTypeCounts());
+    }
+}
@@ -0,0 +1,170 @@
+package com.biotool.service;
+
+import com.biotool.entity.BatchJob;
+import com.biotool.entity.BatchJobResult;
+import com.biotool.repository.BatchJobRepository;
+import com.biotool.repository.BatchJobResultRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class BatchJobServiceTest {
+
+    private static final Long USER_ID = 4242L;
+
+    @Autowired
+    private BatchJobService batchJobService;
+
+    @Autowired
+    private BatchJobRepository batchJobRepository;
+
+    @Autowired
+    private BatchJobResultRepository batchJobResultRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Object shardMaxRecords;
+
+    @BeforeEach
+    void setUp() {
+        shardMaxRecords = ReflectionTestUtils.getField(batchJobService, "shardMaxRecords");
+        ReflectionTestUtils.setField(batchJobService, "shardMaxRecords", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(batchJobService, "shardMaxRecords", shardMaxRecords);
+    }
+
+    @Test
+    void resultsAreStoredAndServedInInputOrder() throws Exception {
+        StringBuilder fasta = new StringBuilder();
+        for (int i = 0; i < 7; i++) {
+            fasta.append(">seq").append(i).append('\n').append("ATGGCC".repeat(i + 1)).append("TAA\n");
+        }
+        BatchJob job = awaitFinished(batchJobService.submit(USER_ID, fasta.toString()).getId());
+
+        assertThat(job.getStatus()).isEqualTo(BatchJob.COMPLETED);
+        assertThat(job.getTotalShards()).isEqualTo(4);
+        assertThat(job.getCompletedRecords()).isEqualTo(7);
+        assertThat(job.getResultsExpireAt()).isAfter(job.getFinishedAt());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        batchJobService.writeResults(job, out);
+        List<String> ids = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            JsonNode record = objectMapper.readTree(line);
+            ids.add(record.get("id").asText());
+            assertThat(record.get("result").get("length").asInt()).isEqualTo(6 * ids.size() + 3);
+        }
+        assertThat(ids).containsExactly("seq0", "seq1", "seq2", "seq3", "seq4", "seq5", "seq6");
+    }
+
+    @Test
+    void missingResultsAreReportedRatherThanTruncated() {
+        BatchJob job = newJob(BatchJob.COMPLETED, LocalDateTime.now());
+        job.setTotalShards(2);
+        job = batchJobRepository.save(job);
+        batchJobResultRepository.save(new BatchJobResult(job.getId(), 1, 1, new byte[0]));
+
+        assertThat(batchJobService.hasAllResults(job)).isFalse();
+        BatchJob stored = job;
+        assertThatThrownBy(() -> batchJobService.writeResults(stored, new ByteArrayOutputStream()))
+                .hasMessageContaining("shard 0");
+
+        batchJobResultRepository.save(new BatchJobResult(job.getId(), 0, 1, new byte[0]));
+        assertThat(batchJobService.hasAllResults(job)).isTrue();
+    }
+
+    @Test
+    void aJobFailedElsewhereIsStoppedRatherThanOverwritten() throws InterruptedException {
+        StringBuilder fasta = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            fasta.append(">seq").append(i).append('\n').append("ATGGCCTAA\n");
+        }
+        Long jobId = batchJobService.submit(USER_ID, fasta.toString()).getId();
+        // Another instance decides the job was abandoned while this one is still running it.
+        transactionTemplate.executeWithoutResult(status -> batchJobRepository.failAbandoned(
+                LocalDateTime.now().plusDays(1), LocalDateTime.now(), "The job was interrupted elsewhere."));
+
+        Map<?, ?> jobs = (Map<?, ?>) ReflectionTestUtils.getField(batchJobService, "jobs");
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (jobs.containsKey(jobId) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(jobs.containsKey(jobId)).isFalse();
+        BatchJob job = batchJobRepository.findById(jobId).orElseThrow();
+        assertThat(job.getStatus()).isEqualTo(BatchJob.FAILED);
+        assertThat(job.getErrorMessage()).contains("interrupted");
+        assertThat(job.getCompletedShards()).isLessThan(job.getTotalShards());
+    }
+
+    @Test
+    void interruptedJobsFailAndExpiredResultsAreDeleted() {
+        BatchJob running = newJob(BatchJob.RUNNING, null);
+        running.setHeartbeatAt(LocalDateTime.now().minusHours(1));
+        running = batchJobRepository.save(running);
+        BatchJob leased = newJob(BatchJob.RUNNING, null);
+        leased.setHeartbeatAt(LocalDateTime.now());
+        leased = batchJobRepository.save(leased);
+        BatchJob expired = batchJobRepository.save(newJob(BatchJob.COMPLETED, LocalDateTime.now().minusDays(1)));
+        BatchJob recent = batchJobRepository.save(newJob(BatchJob.COMPLETED, LocalDateTime.now()));
+        batchJobResultRepository.save(new BatchJobResult(expired.getId(), 0, 1, new byte[0]));
+        batchJobResultRepository.save(new BatchJobResult(recent.getId(), 0, 1, new byte[0]));
+
+        batchJobService.closeAbandonedJobs();
+
+        BatchJob failed = batchJobRepository.findById(running.getId()).orElseThrow();
+        assertThat(failed.getStatus()).isEqualTo(BatchJob.FAILED);
+        assertThat(failed.getErrorMessage()).contains("interrupted");
+        assertThat(failed.getFinishedAt()).isNotNull();
+        assertThat(batchJobRepository.findById(leased.getId()).orElseThrow().getStatus()).isEqualTo(BatchJob.RUNNING);
+        assertThat(batchJobResultRepository.findAll()).extracting(BatchJobResult::getJobId)
+                .contains(recent.getId())
+                .doesNotContain(expired.getId());
+    }
+
+    private BatchJob awaitFinished(Long jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (true) {
+            BatchJob job = batchJobRepository.findById(jobId).orElseThrow();
+            if (job.getFinishedAt() != null || System.currentTimeMillis() > deadline) {
+                return job;
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private static BatchJob newJob(String status, LocalDateTime finishedAt) {
+        BatchJob job = new BatchJob();
+        job.setUserId(USER_ID);
+        job.setStatus(status);
+        job.setTotalRecords(1);
+        job.setTotalShards(1);
+        job.setFinishedAt(finishedAt);
+        return job;
+    }
+}
@@ -0,0 +1,195 @@
+package com.biotool.service;
+
+import com.biotool.model.AnalysisResult;
+import com.biotool.model.EditRequest;
+import com.biotool.model.EditSessionResult;
+import com.biotool.model.OrfLocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.biotool.TestData.randomBases;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class EditSessionServiceTest {
+
+    private static final String OWNER = "alice";
+
+    private final SequenceService sequenceService = new SequenceService();
+    private EditSessionService editSessionService;
+
+    @BeforeEach
+    void setUp() {
+        editSessionService = new EditSessionService();
+        ReflectionTestUtils.setField(editSessionService, "sessionTtlMinutes", 30L);
+        ReflectionTestUtils.setField(editSessionService, "maxTotalBases", 10_000L);
+    }
+
+    @Test
+    void editsMatchAFullAnalysisAndReportTheOrfsTheyChange() {
+        Random random = new Random(7);
+        StringBuilder sequence = new StringBuilder(randomBases(random, 600, "ACGTACGTACGTN"));
+        String id = editSessionService.open(OWNER, sequence.toString()).getSessionId();
+        List<String> orfs = orfs(sequence.toString());
+
+        for (int step = 0; step < 300; step++) {
+            int position = random.nextInt(sequence.length() + 1);
+            int deleteLength = random.nextInt(Math.min(6, sequence.length() - position) + 1);
+            String insert = randomBases(random, random.nextInt(7), "ACGTACGTACGTN");
+
+            EditSessionResult result = editSessionService.edit(OWNER, id, edit(position, deleteLength, insert)).get();
+            sequence.replace(position, position + deleteLength, insert);
+
+            AnalysisResult expected = sequenceService.analyze(sequence.toString());
+            assertThat(result.getLength()).isEqualTo(expected.getLength());
+            assertThat(result.getNucleotideCounts()).isEqualTo(expected.getNucleotideCounts());
+            assertThat(result.getGcContent()).isCloseTo(expected.getGcContent(), within(1e-9));
+            assertThat(result.getMeltingTemperature()).isCloseTo(expected.getMeltingTemperature(), within(1e-9));
+            assertThat(result.getOrfCount()).isEqualTo(expected.getOpenReadingFrames().size());
+
+            // Unlisted ORFs downstream of the edit move by its change in length; the listed ones are replaced.
+            int growth = insert.length() - deleteLength;
+            List<String> removed = keys(result.getRemovedOrfs());
+            List<String> updated = new ArrayList<>();
+            for (String orf : orfs) {
+                if (!removed.contains(orf)) {
+                    int start = Integer.parseInt(orf.split(":")[0]);
+                    int end = Integer.parseInt(orf.split(":")[1]);
+                    int shift = start >= position + deleteLength ? growth : 0;
+                    updated.add((start + shift) + ":" + (end + shift));
+                }
+            }
+            updated.addAll(keys(result.getAddedOrfs()));
+            orfs = orfs(sequence.toString());
+            assertThat(updated).containsExactlyInAnyOrderElementsOf(orfs);
+        }
+    }
+
+    @Test
+    void nestedOrfsAreGroupedAndTheirBasesReadOnDemand() {
+        String id = editSessionService.open(OWNER, "CCCATGAAAATGCCCATGTAA").getSessionId();
+
+        EditSessionResult result = editSessionService.edit(OWNER, id, edit(7, 1, "G")).get();
+
+        // All three ATGs share the TAA, but only the first starts before the edit, so only its ORF changes.
+        assertThat(result.getRemovedOrfs()).singleElement().satisfies(orf -> {
+            assertThat(orf.getStarts()).containsExactly(3);
+            assertThat(orf.getEnd()).isEqualTo(21);
+        });
+        assertThat(keys(result.getAddedOrfs())).containsExactly("3:21");
+        assertThat(editSessionService.getBases(OWNER, id, 3, 21)).contains("ATGAGAATGCCCATGTAA");
+        assertThatThrownBy(() -> editSessionService.getBases(OWNER, id, 3, 22))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void substitutionsReportOnlyTheOrfsWhoseBasesChanged() {
+        String id = editSessionService.open(OWNER, "ATGAAAATGCCCTAA").getSessionId();
+
+        EditSessionResult same = editSessionService.edit(OWNER, id, edit(4, 1, "A")).get();
+        assertThat(same.getRemovedOrfs()).isEmpty();
+        assertThat(same.getAddedOrfs()).isEmpty();
+
+        // Changing a base between the two ATGs changes the outer ORF but not the nested one.
+        EditSessionResult changed = editSessionService.edit(OWNER, id, edit(4, 1, "C")).get();
+        assertThat(keys(changed.getRemovedOrfs())).containsExactly("0:15");
+        assertThat(keys(changed.getAddedOrfs())).containsExactly("0:15");
+    }
+
+    @Test
+    void acceptsFastaAndAmbiguityCodes() {
+        EditSessionResult result = editSessionService.open(OWNER, ">seq1\natgNNNtaa\nATGCCCTGA\n");
+
+        assertThat(result.getLength()).isEqualTo(18);
+        assertThat(result.getNucleotideCounts()).containsEntry('N', 3);
+        assertThat(result.getOrfCount()).isEqualTo(1);
+
+        // Replacing NNN with a real codon lets the first ATG reach its stop.
+        result = editSessionService.edit(OWNER, result.getSessionId(), edit(3, 3, "gcc")).get();
+        assertThat(result.getOrfCount()).isEqualTo(2);
+        assertThat(keys(result.getAddedOrfs())).containsExactly("0:9");
+        assertThat(editSessionService.getBases(OWNER, result.getSessionId(), 0, 9)).contains("ATGGCCTAA");
+        assertThat(result.getNucleotideCounts()).doesNotContainKey('N');
+    }
+
+    @Test
+    void rejectsNonDnaInput() {
+        assertThatThrownBy(() -> editSessionService.open(OWNER, "MKVLEEQRWP"))
+                .isInstanceOf(IllegalArgumentException.class);
+        String id = editSessionService.open(OWNER, "ATGTAA").getSessionId();
+        assertThatThrownBy(() -> editSessionService.edit(OWNER, id, edit(0, 0, "AUG")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void evictionReleasesExactlyWhatEachSessionReserved() {
+        ReflectionTestUtils.setField(editSessionService, "maxTotalBases", 100L);
+        String first = editSessionService.open(OWNER, "A".repeat(40)).getSessionId();
+        String second = editSessionService.open(OWNER, "C".repeat(40)).getSessionId();
+        editSessionService.edit(OWNER, first, edit(0, 30, ""));
+        editSessionService.edit(OWNER, second, edit(0, 0, "G".repeat(20)));
+        assertThat(totalBases()).isEqualTo(10 + 60);
+
+        // Opening a third session evicts the least recently used one, which is the first.
+        String third = editSessionService.open(OWNER, "T".repeat(35)).getSessionId();
+        assertThat(totalBases()).isEqualTo(60 + 35);
+        assertThat(editSessionService.edit(OWNER, first, edit(0, 0, "A"))).isEmpty();
+
+        assertThat(editSessionService.close(OWNER, second)).isTrue();
+        assertThat(editSessionService.close(OWNER, third)).isTrue();
+        assertThat(totalBases()).isZero();
+    }
+
+    @Test
+    void idleSessionsAreEvictedWithoutTouchingTheirSequences() {
+        String id = editSessionService.open(OWNER, "ATGAAATAG").getSessionId();
+        ReflectionTestUtils.setField(editSessionService, "sessionTtlMinutes", -1L);
+        editSessionService.evictIdleSessions();
+
+        assertThat(totalBases()).isZero();
+        assertThat(editSessionService.get(OWNER, id)).isEmpty();
+        assertThat(editSessionService.edit(OWNER, id, edit(0, 0, "A"))).isEmpty();
+    }
+
+    private long totalBases() {
+        return (long) ReflectionTestUtils.getField(editSessionService, "totalBases");
+    }
+
+    // Every ORF as "start:end", found the same way as a full analysis finds them.
+    private List<String> orfs(String sequence) {
+        List<String> orfs = new ArrayList<>();
+        List<String> found = sequenceService.analyze(sequence).getOpenReadingFrames();
+        int start = sequence.indexOf("ATG");
+        for (String orf : found) {
+            while (!sequence.startsWith(orf, start)) {
+                start = sequence.indexOf("ATG", start + 1);
+            }
+            orfs.add(start + ":" + (start + orf.length()));
+            start = sequence.indexOf("ATG", start + 1);
+        }
+        return orfs;
+    }
+
+    // The ORFs of grouped entries as "start:end", one per start.
+    private static List<String> keys(List<OrfLocation> groups) {
+        List<String> keys = new ArrayList<>();
+        for (OrfLocation group : groups) {
+            for (int start : group.getStarts()) keys.add(start + ":" + group.getEnd());
+        }
+        return keys;
+    }
+
+    private static EditRequest edit(int position, int deleteLength, String insert) {
+        EditRequest request = new EditRequest();
+        request.setPosition(position);
+        request.setDeleteLength(deleteLength);
+        request.setInsert(insert);
+        return request;
+    }
+}
@@ -0,0 +1,84 @@
+package com.biotool.service;
+
+import com.biotool.model.ProteinProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Reference values are the ones ExPASy ProtParam reports for the same chains.
+ */
+class ProteinAnalysisServiceTest {
+
+    // Human ubiquitin (UniProt P0CG48, one chain)
+    private static final String UBIQUITIN =
+            "MQIFVKTLTGKTITLEVEPSDTIENVKAKIQDKEGIPPDQQRLIFAGKQLEDGRTLSDYNIQKESTLHLVLRLRGG";
+    // Hen egg-white lysozyme, mature chain (UniProt P00698, residues 19-147)
+    private static final String LYSOZYME = "KVFGRCELAAAMKRHGLDNYRGYSLGNWVCAAKFESNFNTQATNRNTDGSTDYGILQINSRWWCNDGRTPGSRN"
+            + "LCNIPCSALLSSDITASVNCAKKIVSDGNGMNAWVAWRNRCKGTDVQAWIRGCRL";
+
+    private final ProteinAnalysisService proteinAnalysisService = new ProteinAnalysisService();
+
+    @Test
+    void ubiquitinMatchesProtParam() {
+        ProteinProperties properties = proteinAnalysisService.analyze(UBIQUITIN);
+
+        assertThat(properties.getLength()).isEqualTo(76);
+        assertThat(properties.getMolecularWeight()).isCloseTo(8564.84, within(0.01));
+        assertThat(properties.getIsoelectricPoint()).isCloseTo(6.56, within(0.01));
+        assertThat(properties.getGravy()).isCloseTo(-0.489, within(0.001));
+        assertThat(properties.getExtinctionCoefficientReduced()).isEqualTo(1490);
+        assertThat(properties.getExtinctionCoefficientCystines()).isEqualTo(1490);
+    }
+
+    @Test
+    void lysozymeMatchesProtParam() {
+        ProteinProperties properties = proteinAnalysisService.analyze(LYSOZYME);
+
+        assertThat(properties.getLength()).isEqualTo(129);
+        assertThat(properties.getMolecularWeight()).isCloseTo(14313.14, within(0.01));
+        assertThat(properties.getIsoelectricPoint()).isCloseTo(9.32, within(0.01));
+        assertThat(properties.getGravy()).isCloseTo(-0.472, within(0.001));
+        assertThat(properties.getExtinctionCoefficientReduced()).isEqualTo(6 * 5500 + 3 * 1490);
+        assertThat(properties.getExtinctionCoefficientCystines()).isEqualTo(6 * 5500 + 3 * 1490 + 4 * 125);
+        assertThat(properties.getComposition()).containsEntry('C', 8).containsEntry('W', 6);
+    }
+
+    @Test
+    void formattingAndStopsDoNotChangeTheResult() {
+        ProteinProperties plain = proteinAnalysisService.analyze(UBIQUITIN);
+        ProteinProperties formatted = proteinAnalysisService.analyze(
+                ">sp|P0CG48 ubiquitin\n" + UBIQUITIN.substring(0, 40).toLowerCase() + "\n 41 "
+                        + UBIQUITIN.substring(40) + "*\n");
+
+        assertThat(formatted.getMolecularWeight()).isEqualTo(plain.getMolecularWeight());
+        assertThat(formatted.getIsoelectricPoint()).isEqualTo(plain.getIsoelectricPoint());
+        assertThat(formatted.getExcludedResidues()).isEqualTo(1);
+    }
+
+    @Test
+    void fastaBatchKeepsRecordOrderAndIds() {
+        StringBuilder fasta = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            fasta.append(">chain").append(i).append(" test\n").append(i % 2 == 0 ? UBIQUITIN : LYSOZYME).append('\n');
+        }
+        List<ProteinProperties> results = proteinAnalysisService.analyzeAll(fasta.toString());
+
+        assertThat(results).hasSize(100);
+        for (int i = 0; i < 100; i++) {
+            assertThat(results.get(i).getId()).isEqualTo("chain" + i);
+            assertThat(results.get(i).getLength()).isEqualTo(i % 2 == 0 ? 76 : 129);
+        }
+    }
+
+    @Test
+    void rejectsCharactersThatCannotBeResidues() {
+        assertThatThrownBy(() -> proteinAnalysisService.analyzeAll(">bad\nMKV#L\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("bad");
+    }
+}
@@ -0,0 +1,179 @@
+package com.biotool.service;
+
+import com.biotool.model.DigestFragment;
+import com.biotool.model.RestrictionDigest;
+import com.biotool.model.RestrictionEnzyme;
+import com.biotool.model.RestrictionSite;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static com.biotool.TestData.randomBases;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RestrictionAnalysisServiceTest {
+
+    private final RestrictionAnalysisService restrictionAnalysisService = new RestrictionAnalysisService();
+
+    @Test
+    void palindromicSiteIsCutOnceInsideTheSite() {
+        // EcoRI, G^AATTC: the top strand is cut after the G and the bottom strand before the final C.
+        RestrictionDigest digest = restrictionAnalysisService.digest("aaaGAATTCcccaaaa", List.of("EcoRI"), false);
+
+        assertThat(digest.getSites()).singleElement().satisfies(site -> {
+            assertThat(site.getRecognitionStart()).isEqualTo(3);
+            assertThat(site.getStrand()).isEqualTo('+');
+            assertThat(site.getTopCut()).isEqualTo(4);
+            assertThat(site.getBottomCut()).isEqualTo(8);
+        });
+        assertThat(digest.getFragments()).extracting(DigestFragment::getLength).containsExactly(4, 12);
+    }
+
+    @Test
+    void typeIISSitesCutOutsideTheSiteOnEitherStrand() {
+        // BsaI, GGTCTC(1/5), read on the top strand cuts downstream of the site...
+        RestrictionDigest forward = restrictionAnalysisService.digest(
+                "A".repeat(12) + "GGTCTC" + "A".repeat(12), List.of("BsaI"), false);
+        assertThat(forward.getSites()).singleElement().satisfies(site -> {
+            assertThat(site.getStrand()).isEqualTo('+');
+            assertThat(site.getTopCut()).isEqualTo(19);
+            assertThat(site.getBottomCut()).isEqualTo(23);
+        });
+
+        // ...and read on the bottom strand (GAGACC on top) cuts upstream of it.
+        RestrictionDigest reverse = restrictionAnalysisService.digest(
+                "A".repeat(12) + "GAGACC" + "A".repeat(12), List.of("BsaI"), false);
+        assertThat(reverse.getSites()).singleElement().satisfies(site -> {
+            assertThat(site.getRecognitionStart()).isEqualTo(12);
+            assertThat(site.getStrand()).isEqualTo('-');
+            assertThat(site.getTopCut()).isEqualTo(7);
+            assertThat(site.getBottomCut()).isEqualTo(11);
+        });
+
+        // Near the end of a linear sequence the cut would fall off it, so there is none.
+        assertThat(restrictionAnalysisService.digest("AAGAGACC" + "A".repeat(12), List.of("BsaI"), false)
+                .getSites()).isEmpty();
+    }
+
+    @Test
+    void circularSequencesAreCutAcrossTheOrigin() {
+        String sequence = "AATTC" + "T".repeat(20) + "G";
+
+        assertThat(restrictionAnalysisService.digest(sequence, List.of("EcoRI"), false).getSites()).isEmpty();
+        RestrictionDigest digest = restrictionAnalysisService.digest(sequence, List.of("EcoRI"), true);
+        assertThat(digest.getSites()).singleElement().satisfies(site -> {
+            assertThat(site.getRecognitionStart()).isEqualTo(25);
+            assertThat(site.getTopCut()).isEqualTo(0);
+            assertThat(site.getBottomCut()).isEqualTo(4);
+        });
+        assertThat(digest.getFragments()).singleElement()
+                .satisfies(fragment -> assertThat(fragment.getLength()).isEqualTo(sequence.length()));
+    }
+
+    @Test
+    void circularDigestDoesNotDependOnWhereTheSequenceStarts() {
+        String sequence = randomBases(new Random(3), 2000);
+        RestrictionDigest digest = restrictionAnalysisService.digest(sequence, null, true);
+
+        for (int shift : new int[] {1, 517, 1999}) {
+            String rotated = sequence.substring(shift) + sequence.substring(0, shift);
+            RestrictionDigest other = restrictionAnalysisService.digest(rotated, null, true);
+            assertThat(other.getCutCounts()).isEqualTo(digest.getCutCounts());
+            assertThat(other.getFragments()).extracting(DigestFragment::getLength)
+                    .containsExactlyInAnyOrderElementsOf(digest.getFragments().stream()
+                            .map(DigestFragment::getLength).toList());
+        }
+    }
+
+    @Test
+    void everyCatalogEnzymeMatchesANaiveScanOfBothStrands() {
+        String sequence = randomBases(new Random(5), 3000);
+        for (boolean circular : new boolean[] {false, true}) {
+            RestrictionDigest digest = restrictionAnalysisService.digest(sequence, null, circular);
+            List<String> found = new ArrayList<>();
+            for (RestrictionSite site : digest.getSites()) {
+                found.add(site.getEnzyme() + ":" + site.getTopCut() + ":" + site.getBottomCut());
+            }
+            assertThat(found).as(circular ? "circular" : "linear")
+                    .containsExactlyInAnyOrderElementsOf(naiveCuts(sequence, circular));
+
+            int total = digest.getFragments().stream().mapToInt(DigestFragment::getLength).sum();
+            assertThat(total).isEqualTo(sequence.length());
+        }
+    }
+
+    @Test
+    void rejectsUnknownEnzymesAndProteins() {
+        assertThatThrownBy(() -> restrictionAnalysisService.digest("GAATTC", List.of("NoSuchI"), false))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> restrictionAnalysisService.digest("MKVLEEQRWP", null, false))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // Every cut of every catalog enzyme, found by trying each site and its reverse complement at every position.
+    private List<String> naiveCuts(String sequence, boolean circular) {
+        int n = sequence.length();
+        List<String> cuts = new ArrayList<>();
+        for (RestrictionEnzyme enzyme : restrictionAnalysisService.getEnzymes()) {
+            String site = enzyme.getRecognitionSequence();
+            String reverse = reverseComplement(site);
+            int length = site.length();
+            Set<Integer> seen = new HashSet<>();
+            for (int start = 0; start < (circular ? n : n - length + 1); start++) {
+                for (int strand = 0; strand < (reverse.equals(site) ? 1 : 2); strand++) {
+                    if (!matches(sequence, start, strand == 0 ? site : reverse)) continue;
+                    int top = strand == 0 ? start + enzyme.getTopCut() : start + length - enzyme.getBottomCut();
+                    int bottom = strand == 0 ? start + enzyme.getBottomCut() : start + length - enzyme.getTopCut();
+                    if (circular) {
+                        top = Math.floorMod(top, n);
+                        bottom = Math.floorMod(bottom, n);
+                    } else if (top <= 0 || top >= n || bottom <= 0 || bottom >= n) {
+                        continue;
+                    }
+                    if (seen.add(top)) {
+                        cuts.add(enzyme.getName() + ":" + top + ":" + bottom);
+                    }
+                }
+            }
+        }
+        return cuts;
+    }
+
+    private static boolean matches(String sequence, int start, String site) {
+        for (int i = 0; i < site.length(); i++) {
+            char base = sequence.charAt((start + i) % sequence.length());
+            if (!iupac(site.charAt(i)).contains(String.valueOf(base))) return false;
+        }
+        return true;
+    }
+
+    private static String iupac(char code) {
+        switch (code) {
+            case 'R': return "AG";
+            case 'Y': return "CT";
+            case 'S': return "CG";
+            case 'W': return "AT";
+            case 'K': return "GT";
+            case 'M': return "AC";
+            case 'B': return "CGT";
+            case 'D': return "AGT";
+            case 'H': return "ACT";
+            case 'V': return "ACG";
+            case 'N': return "ACGT";
+            default: return String.valueOf(code);
+        }
+    }
+
+    private static String reverseComplement(String site) {
+        StringBuilder out = new StringBuilder(site.length());
+        for (int i = site.length() - 1; i >= 0; i--) {
+            out.append("TGCAYRSWMKVHDBN".charAt("ACGTRYSWKMBDHVN".indexOf(site.charAt(i))));
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,62 @@
+package com.biotool.service;
+
+import com.biotool.model.SequenceRegion;
+import com.biotool.service.SequenceNormalizer.NormalizedSequence;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SequenceNormalizerTest {
+
+    @Test
+    void dropsHeadersCommentsWhitespaceDigitsAndGaps() {
+        NormalizedSequence normalized = SequenceNormalizer.normalize(
+                ">chr1 test sequence\r\n; a comment line\n1 ACGT-ACGT 10\n  GG\tCC\n>second\nTT");
+
+        assertThat(normalized.getSequence()).isEqualTo("ACGTACGTGGCCTT");
+        assertThat(normalized.isNucleotide()).isTrue();
+        assertThat(normalized.getAmbiguousCount()).isZero();
+        assertThat(normalized.getMaskedRegions()).isEmpty();
+        assertThat(normalized.getAmbiguousRegions()).isEmpty();
+    }
+
+    @Test
+    void headerOnTheLastLineNeedsNoNewline() {
+        assertThat(SequenceNormalizer.normalize("ACGT\n>trailing header").getSequence()).isEqualTo("ACGT");
+        assertThat(SequenceNormalizer.normalize(">only a header").getSequence()).isEmpty();
+    }
+
+    @Test
+    void recordsSoftMaskedRuns() {
+        NormalizedSequence normalized = SequenceNormalizer.normalize("ACgt\nacGTTaa");
+
+        assertThat(normalized.getSequence()).isEqualTo("ACGTACGTTAA");
+        assertThat(regions(normalized.getMaskedRegions())).containsExactly("2-6", "9-11");
+    }
+
+    @Test
+    void recordsIupacRunsAndKeepsThemAsNucleotides() {
+        NormalizedSequence normalized = SequenceNormalizer.normalize("ACNNNGTryswkmbdhvA");
+
+        assertThat(normalized.getSequence()).isEqualTo("ACNNNGTRYSWKMBDHVA");
+        assertThat(normalized.isNucleotide()).isTrue();
+        assertThat(normalized.getAmbiguousCount()).isEqualTo(3 + 10);
+        assertThat(regions(normalized.getAmbiguousRegions())).containsExactly("2-5", "7-17");
+        assertThat(regions(normalized.getMaskedRegions())).containsExactly("7-17");
+    }
+
+    @Test
+    void flagsProteinsAndStrayCharactersAsNotNucleotide() {
+        assertThat(SequenceNormalizer.normalize("MKVLEEQRWP").isNucleotide()).isFalse();
+        assertThat(SequenceNormalizer.normalize("ACGU").isNucleotide()).isFalse();
+        assertThat(SequenceNormalizer.normalize("ACG>T").isNucleotide()).isFalse();
+        assertThat(SequenceNormalizer.normalize("ACGT\u00e9").isNucleotide()).isFalse();
+        assertThat(SequenceNormalizer.normalize("ACGT\u00e9").getSequence()).isEqualTo("ACGT\u00c9");
+    }
+
+    private static List<String> regions(List<SequenceRegion> regions) {
+        return regions.stream().map(region -> region.getStart() + "-" + region.getEnd()).toList();
+    }
+}
@@ -0,0 +1,124 @@
+package com.biotool.service;
+
+import com.biotool.service.SequenceRope.Codon;
+import com.biotool.service.SequenceRope.Summary;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static com.biotool.TestData.randomBases;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SequenceRopeTest {
+
+    // Weighted towards the bases that form ATG and stop codons, with the occasional ambiguity code.
+    private static final String ALPHABET = "AAATTTGGGCCN";
+
+    private final SequenceService sequenceService = new SequenceService();
+
+    @Test
+    void randomEditsMatchAStringBuilder() {
+        Random random = new Random(42);
+        StringBuilder expected = new StringBuilder(randomBases(random, 2000, ALPHABET));
+        SequenceRope rope = new SequenceRope(encode(expected.toString()));
+
+        for (int step = 0; step < 2000; step++) {
+            int position = random.nextInt(expected.length() + 1);
+            int deleteLength = random.nextInt(Math.min(40, expected.length() - position) + 1);
+            String insert = randomBases(random, random.nextInt(random.nextInt(10) == 0 ? 600 : 12), ALPHABET);
+
+            expected.replace(position, position + deleteLength, insert);
+            rope.delete(position, deleteLength);
+            rope.insert(position, encode(insert));
+
+            if (step % 50 == 0) {
+                assertMatches(rope, expected.toString(), random);
+            }
+        }
+        assertMatches(rope, expected.toString(), random);
+    }
+
+    @Test
+    void deletingEverythingLeavesAnEmptyRope() {
+        SequenceRope rope = new SequenceRope(encode("ATGAAATAG"));
+        rope.delete(0, 9);
+
+        assertThat(rope.length()).isZero();
+        assertThat(rope.toString()).isEmpty();
+        assertThat(rope.next(Codon.START, 0, 0)).isEqualTo(-1);
+
+        rope.insert(0, encode("ATGTAA"));
+        assertThat(rope.toString()).isEqualTo("ATGTAA");
+        assertThat(rope.summary().orfCount()).isEqualTo(1);
+    }
+
+    @Test
+    void ambiguityCodesAreKeptAndEndReadingFrames() {
+        SequenceRope rope = new SequenceRope(encode("ATGRYSTAAATGCCCTGA"));
+
+        assertThat(rope.toString()).isEqualTo("ATGRYSTAAATGCCCTGA");
+        assertThat(rope.summary().baseCount(SequenceRope.encode('S'))).isEqualTo(1);
+        // The first ATG runs into RYS before reaching TAA; the second reaches TGA.
+        assertThat(rope.summary().orfCount()).isEqualTo(1);
+        assertThat(rope.next(Codon.END, 0, 3)).isEqualTo(3);
+        assertThat(rope.next(Codon.STOP, 0, 3)).isEqualTo(6);
+    }
+
+    private void assertMatches(SequenceRope rope, String expected, Random random) {
+        assertThat(rope.length()).isEqualTo(expected.length());
+        assertThat(rope.toString()).isEqualTo(expected);
+
+        Summary summary = rope.summary();
+        for (char base : "ACGTN".toCharArray()) {
+            assertThat(summary.baseCount(SequenceRope.encode(base)))
+                    .as("count of %s", base)
+                    .isEqualTo((int) expected.chars().filter(ch -> ch == base).count());
+        }
+        assertThat(summary.orfCount())
+                .isEqualTo(sequenceService.analyze(expected).getOpenReadingFrames().size());
+
+        for (int i = 0; i < 20; i++) {
+            int from = random.nextInt(expected.length() + 1);
+            int to = from + random.nextInt(expected.length() - from + 1);
+            assertThat(rope.substring(from, to)).isEqualTo(expected.substring(from, to));
+            for (Codon codon : Codon.values()) {
+                for (int frame = 0; frame < 3; frame++) {
+                    assertThat(rope.next(codon, frame, from)).isEqualTo(next(expected, codon, frame, from));
+                    assertThat(rope.previous(codon, frame, from)).isEqualTo(previous(expected, codon, frame, from));
+                }
+            }
+        }
+    }
+
+    private static int next(String sequence, Codon codon, int frame, int from) {
+        for (int p = Math.max(from, 0); p + 3 <= sequence.length(); p++) {
+            if (p % 3 == frame && is(sequence, p, codon)) return p;
+        }
+        return -1;
+    }
+
+    private static int previous(String sequence, Codon codon, int frame, int limit) {
+        for (int p = Math.min(limit, sequence.length() - 2) - 1; p >= 0; p--) {
+            if (p % 3 == frame && is(sequence, p, codon)) return p;
+        }
+        return -1;
+    }
+
+    private static boolean is(String sequence, int p, Codon codon) {
+        String triplet = sequence.substring(p, p + 3);
+        boolean stop = triplet.equals("TAA") || triplet.equals("TAG") || triplet.equals("TGA");
+        switch (codon) {
+            case START: return triplet.equals("ATG");
+            case STOP: return stop;
+            default: return stop || triplet.indexOf('N') >= 0;
+        }
+    }
+
+    private static byte[] encode(String sequence) {
+        byte[] codes = new byte[sequence.length()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = SequenceRope.encode(sequence.charAt(i));
+        }
+        return codes;
+    }
+}
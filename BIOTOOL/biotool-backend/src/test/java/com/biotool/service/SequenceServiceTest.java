@@ -0,0 +1,56 @@
+package com.biotool.service;
+
+import com.biotool.model.AnalysisResult;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class SequenceServiceTest {
+
+    private final SequenceService sequenceService = new SequenceService();
+
+    @Test
+    void complementsEveryIupacCode() {
+        AnalysisResult result = sequenceService.analyze("ACGTRYKMSWBDHVN");
+
+        assertThat(result.getReverseComplement()).isEqualTo("NBDHVWSKMRYACGT");
+        assertThat(sequenceService.analyze(result.getReverseComplement()).getReverseComplement())
+                .isEqualTo("ACGTRYKMSWBDHVN");
+    }
+
+    @Test
+    void reverseComplementOfPlainDna() {
+        assertThat(sequenceService.analyze("gaattcAAACCG").getReverseComplement()).isEqualTo("CGGTTTGAATTC");
+    }
+
+    @Test
+    void ambiguousBasesAreLeftOutOfGcContentAndPooledInCounts() {
+        AnalysisResult result = sequenceService.analyze("GGSSAAWN");
+
+        // Strong: G, G, S, S; weak: A, A, W; N is unknown either way.
+        assertThat(result.getSequenceType()).isEqualTo("DNA");
+        assertThat(result.getGcContent()).isCloseTo(400.0 / 7, within(1e-9));
+        assertThat(result.getNucleotideCounts())
+                .containsEntry('G', 2).containsEntry('A', 2).containsEntry('C', 0).containsEntry('T', 0)
+                .containsEntry('N', 4);
+        assertThat(result.getMeltingTemperature()).isEqualTo(2.0 * 2 + 4.0 * 2);
+    }
+
+    @Test
+    void ambiguousCodonsTranslateToXAndEndOpenReadingFrames() {
+        AnalysisResult result = sequenceService.analyze("ATGNNNTAAATGCCCTGA");
+
+        assertThat(result.getProteinSequence()).isEqualTo("MX");
+        assertThat(result.getOpenReadingFrames()).containsExactly("ATGCCCTGA");
+        assertThat(result.getAmbiguousRegions()).hasSize(1);
+    }
+
+    @Test
+    void nonNucleotideInputTakesTheUnknownPath() {
+        AnalysisResult result = sequenceService.analyze("MKVLEEQRWP");
+
+        assertThat(result.getSequenceType()).isEqualTo("Unknown");
+        assertThat(result.getOpenReadingFrames()).isEmpty();
+    }
+}
@@ -0,0 +1,163 @@
+package com.biotool.service;
+
+import com.biotool.entity.SavedAnalysis;
+import com.biotool.entity.SequenceBlob;
+import com.biotool.entity.User;
+import com.biotool.repository.SavedAnalysisRepository;
+import com.biotool.repository.SequenceBlobRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.biotool.TestData.newUser;
+import static com.biotool.TestData.randomBases;
+import static com.biotool.TestData.save;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class SequenceStoreServiceTest {
+
+    @Autowired
+    private SequenceStoreService sequenceStoreService;
+
+    @Autowired
+    private ArchiveStatsService archiveStatsService;
+
+    @Autowired
+    private SavedAnalysisRepository savedAnalysisRepository;
+
+    @Autowired
+    private SequenceBlobRepository sequenceBlobRepository;
+
+    private final Random random = new Random(11);
+    private Object migrationChunkSize;
+
+    @BeforeEach
+    void setUp() {
+        migrationChunkSize = ReflectionTestUtils.getField(sequenceStoreService, "migrationChunkSize");
+        ReflectionTestUtils.setField(sequenceStoreService, "migrationChunkSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(sequenceStoreService, "migrationChunkSize", migrationChunkSize);
+    }
+
+    @Test
+    void concurrentMigrationsMoveEachAnalysisOnce() throws Exception {
+        User user = newUser(archiveStatsService);
+        String shared = randomBases(random, 30);
+        String single = randomBases(random, 30);
+        for (int i = 0; i < 6; i++) {
+            saveUnshared(user, shared);
+        }
+        saveUnshared(user, single);
+
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<?>> runs = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                runs.add(pool.submit(sequenceStoreService::migrateUnsharedAnalyses));
+            }
+            for (Future<?> run : runs) {
+                run.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(blob(shared).getRefCount()).isEqualTo(6);
+        assertThat(blob(single).getRefCount()).isEqualTo(1);
+        // Carried-over results are marked as older than any analysis version
+        assertThat(blob(shared).getAnalysisVersion()).isZero();
+        assertThat(savedAnalysisRepository.findUnsharedIds(PageRequest.ofSize(10))).isEmpty();
+    }
+
+    @Test
+    void resultsFromAnOlderAnalysisVersionAreRecomputedOnSave() {
+        User user = newUser(archiveStatsService);
+        String sequence = "ATGC".repeat(5) + randomBases(random, 20);
+        saveUnshared(user, sequence);
+        sequenceStoreService.migrateUnsharedAnalyses();
+
+        SavedAnalysis saved = save(archiveStatsService, user, sequence);
+
+        SequenceBlob blob = blob(sequence);
+        assertThat(blob.getRefCount()).isEqualTo(2);
+        assertThat(blob.getAnalysisVersion()).isEqualTo(SequenceService.ANALYSIS_VERSION);
+        assertThat(blob.getGcContent()).isEqualTo(new SequenceService().analyze(sequence).getGcContent());
+        assertThat(blob.getProteinSequence()).isEqualTo(new SequenceService().analyze(sequence).getProteinSequence());
+        assertThat(saved.getGcContent()).isEqualTo(blob.getGcContent());
+    }
+
+    @Test
+    void legacySequencesAreNormalizedBeforeTheyAreShared() {
+        User user = newUser(archiveStatsService);
+        String sequence = "TTAGC".repeat(4) + randomBases(random, 20);
+        String typed = ">legacy entry\n" + sequence.substring(0, 20).toLowerCase() + " \r\n"
+                + sequence.substring(20, 30) + "\t" + sequence.substring(30).toLowerCase() + "\n";
+        saveUnshared(user, typed);
+        sequenceStoreService.migrateUnsharedAnalyses();
+
+        assertThat(blob(sequence).getSequence()).isEqualTo(sequence);
+        assertThat(sequenceBlobRepository.findById(SequenceStoreService.hash(typed))).isEmpty();
+
+        save(archiveStatsService, user, sequence);
+
+        SequenceBlob blob = blob(sequence);
+        assertThat(blob.getRefCount()).isEqualTo(2);
+        assertThat(blob.getAnalysisVersion()).isEqualTo(SequenceService.ANALYSIS_VERSION);
+        assertThat(blob.getGcContent()).isEqualTo(new SequenceService().analyze(sequence).getGcContent());
+    }
+
+    @Test
+    void reconciliationRecountsEveryChunk() {
+        User user = newUser(archiveStatsService);
+        List<String> sequences = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            sequences.add(randomBases(random, 25));
+            save(archiveStatsService, user, sequences.get(i));
+            save(archiveStatsService, user, sequences.get(i));
+        }
+        for (String sequence : sequences) {
+            SequenceBlob blob = blob(sequence);
+            blob.setRefCount(7);
+            sequenceBlobRepository.save(blob);
+        }
+
+        sequenceStoreService.reconcile();
+
+        for (String sequence : sequences) {
+            assertThat(blob(sequence).getRefCount()).isEqualTo(2);
+        }
+    }
+
+    private SequenceBlob blob(String sequence) {
+        return sequenceBlobRepository.findById(SequenceStoreService.hash(sequence)).orElseThrow();
+    }
+
+    // An analysis saved before sequences were shared, with made-up results that the migration must keep as they are.
+    private void saveUnshared(User user, String sequence) {
+        SavedAnalysis analysis = new SavedAnalysis();
+        analysis.setUser(user);
+        analysis.setOriginalSequence(sequence);
+        analysis.setSequenceType("DNA");
+        analysis.setSequenceLength(sequence.length());
+        analysis.setGcContent(-1);
+        analysis.setProteinSequence("legacy");
+        savedAnalysisRepository.save(analysis);
+    }
+}